@@ -0,0 +1,99 @@
+package src.MessierProgram;
+
+/**
+ * The formulas available for calculating the angular distance between two
+ * positions on the sky. All of them clamp their intermediate values, so
+ * rounding can never produce NaN.
+ */
+public enum AngularDistanceFormula {
+
+    /**
+     * Spherical law of cosines. Fastest, but loses precision for separations
+     * below a few arc minutes.
+     */
+    LAW_OF_COSINES {
+        @Override
+        double calculate(double rightAscension1, double declination1, double sinDeclination1,
+                double cosDeclination1, double rightAscension2, double declination2, double sinDeclination2,
+                double cosDeclination2) {
+
+            // Formula: cos(θ) = sin(δ1) * sin(δ2) + cos(δ1) * cos(δ2) * cos(α1 - α2)
+            // δ == Declination
+            // α == Right ascension
+            return Math.acos(clamp((sinDeclination1 * sinDeclination2)
+                    + (cosDeclination1 * cosDeclination2 * (Math.cos(rightAscension1 - rightAscension2)))));
+        }
+    },
+
+    /**
+     * Haversine formula. Accurate for small separations, but loses precision for
+     * nearly antipodal positions.
+     */
+    HAVERSINE {
+        @Override
+        double calculate(double rightAscension1, double declination1, double sinDeclination1,
+                double cosDeclination1, double rightAscension2, double declination2, double sinDeclination2,
+                double cosDeclination2) {
+
+            // Formula: hav(θ) = hav(δ2 - δ1) + cos(δ1) * cos(δ2) * hav(α2 - α1)
+            // hav(x) == sin²(x / 2)
+            double sinHalfDec = Math.sin((declination2 - declination1) / 2);
+            double sinHalfRa = Math.sin((rightAscension2 - rightAscension1) / 2);
+
+            double haversine = sinHalfDec * sinHalfDec + cosDeclination1 * cosDeclination2 * sinHalfRa * sinHalfRa;
+
+            return 2 * Math.asin(Math.sqrt(clamp(haversine)));
+        }
+    },
+
+    /**
+     * Vincenty's formula for a sphere. Accurate at every separation, at the cost
+     * of an extra sin and a square root over the law of cosines.
+     */
+    VINCENTY {
+        @Override
+        double calculate(double rightAscension1, double declination1, double sinDeclination1,
+                double cosDeclination1, double rightAscension2, double declination2, double sinDeclination2,
+                double cosDeclination2) {
+
+            double deltaRa = rightAscension2 - rightAscension1;
+            double sinDeltaRa = Math.sin(deltaRa);
+            double cosDeltaRa = Math.cos(deltaRa);
+
+            double a = cosDeclination2 * sinDeltaRa;
+            double b = cosDeclination1 * sinDeclination2 - sinDeclination1 * cosDeclination2 * cosDeltaRa;
+            double c = sinDeclination1 * sinDeclination2 + cosDeclination1 * cosDeclination2 * cosDeltaRa;
+
+            // atan2 needs no clamping, and never returns NaN for finite input.
+            return Math.atan2(Math.sqrt(a * a + b * b), c);
+        }
+    };
+
+    /**
+     * Calculate the angular distance between two positions on the sky.
+     * 
+     * @param rightAscension1 The first right ascension in radians
+     * @param declination1    The first declination in radians
+     * @param rightAscension2 The second right ascension in radians
+     * @param declination2    The second declination in radians
+     * @return The angular distance in radians
+     */
+    public double calculate(double rightAscension1, double declination1, double rightAscension2,
+            double declination2) {
+
+        return calculate(rightAscension1, declination1, Math.sin(declination1), Math.cos(declination1),
+                rightAscension2, declination2, Math.sin(declination2), Math.cos(declination2));
+    }
+
+    /**
+     * Calculate the angular distance using the sin and cos of the declinations
+     * already worked out by the caller.
+     */
+    abstract double calculate(double rightAscension1, double declination1, double sinDeclination1,
+            double cosDeclination1, double rightAscension2, double declination2, double sinDeclination2,
+            double cosDeclination2);
+
+    private static double clamp(double value) {
+        return Math.max(-1, Math.min(1, value));
+    }
+}
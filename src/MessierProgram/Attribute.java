@@ -0,0 +1,52 @@
+package src.MessierProgram;
+
+/**
+ * The numeric attributes of a Messier Object that the catalogue can order and
+ * range query on.
+ */
+public enum Attribute {
+
+    APPARENT_MAGNITUDE {
+        @Override
+        public double getValue(MessierObject object) {
+            return object.getApparentMagnitude();
+        }
+    },
+
+    LOWEST_DISTANCE {
+        @Override
+        public double getValue(MessierObject object) {
+            return object.getLowestDistance();
+        }
+    },
+
+    HIGHEST_DISTANCE {
+        @Override
+        public double getValue(MessierObject object) {
+            return object.getHighestDistance();
+        }
+    },
+
+    RIGHT_ASCENSION {
+        @Override
+        public double getValue(MessierObject object) {
+            return object.getRightAscensionRadians();
+        }
+    },
+
+    DECLINATION {
+        @Override
+        public double getValue(MessierObject object) {
+            return object.getDeclinationRadians();
+        }
+    };
+
+    /**
+     * Get the value of this attribute for an object. Right ascension and
+     * declination are in radians.
+     * 
+     * @param object The Messier Object
+     * @return The value
+     */
+    public abstract double getValue(MessierObject object);
+}
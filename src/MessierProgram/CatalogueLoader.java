@@ -0,0 +1,249 @@
+package src.MessierProgram;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Loads a catalogue file into a Messier Catalogue, optionally splitting it
+ * into chunks that are parsed in parallel.
+ *
+ * Chunks are byte ranges of the file aligned to line breaks, each read by its
+ * own EntryReader on the fork-join pool. Their objects are joined back
+ * together in file order, so the catalogue is the same however many chunks
+ * are used, and an invalid entry is reported with its line number in the
+ * whole file.
+ *
+ * By default the first invalid entry stops the load. With an error budget set,
+ * invalid entries are skipped and collected in a LoadReport instead, until
+ * there are more of them than the budget allows.
+ */
+public class CatalogueLoader {
+
+    // Chunks smaller than this cost more to schedule than they save.
+    private static final long defaultMinimumChunkSize = 1 << 20;
+
+    private final Path path;
+    private final long minimumChunkSize;
+    private int chunkCount = 1;
+    private int maxErrors = 0;
+
+    /**
+     * Constructor for a loader reading the passed file on one thread. Use
+     * IOHandler.loader to create one.
+     *
+     * @param path The path to the file
+     */
+    CatalogueLoader(Path path) {
+        this(path, defaultMinimumChunkSize);
+    }
+
+    /**
+     * Constructor for a loader that splits files into chunks of at least the
+     * passed size, so that tests can split a small file.
+     *
+     * @param path             The path to the file
+     * @param minimumChunkSize The smallest chunk in bytes
+     */
+    CatalogueLoader(Path path, long minimumChunkSize) {
+        this.path = path;
+        this.minimumChunkSize = Math.max(1, minimumChunkSize);
+    }
+
+    /**
+     * Parse the file in parallel, using one chunk per core.
+     *
+     * @return This loader
+     */
+    public CatalogueLoader parallel() {
+        return parallel(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parse the file in parallel, split into at most the passed number of
+     * chunks. Small files are given fewer.
+     *
+     * @param chunkCount The number of chunks
+     * @return This loader
+     */
+    public CatalogueLoader parallel(int chunkCount) {
+        this.chunkCount = Math.max(1, chunkCount);
+        return this;
+    }
+
+    /**
+     * Skip invalid entries rather than stopping at the first, however many
+     * there are.
+     *
+     * @return This loader
+     */
+    public CatalogueLoader lenient() {
+        return maxErrors(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Skip up to the passed number of invalid entries. Zero, the default, stops
+     * at the first.
+     *
+     * @param maxErrors The most invalid entries to skip
+     * @return This loader
+     */
+    public CatalogueLoader maxErrors(int maxErrors) {
+        this.maxErrors = Math.max(0, maxErrors);
+        return this;
+    }
+
+    /**
+     * Read and parse the file.
+     *
+     * @return A catalogue of the objects, in file order
+     * @throws IOException           Thrown if the file can't be read
+     * @throws InvalidEntryException Thrown for the first invalid entry in the
+     *                               file, with its line number, or if there are
+     *                               more than the error budget allows
+     */
+    public MessierCatalogue load() throws IOException, InvalidEntryException {
+        return loadWithReport().getCatalogue();
+    }
+
+    /**
+     * Read and parse the file, reporting any skipped entries and how fast it
+     * went.
+     *
+     * @return The report, holding the catalogue
+     * @throws IOException           Thrown if the file can't be read
+     * @throws InvalidEntryException Thrown for the first invalid entry in the
+     *                               file, with its line number, or if there are
+     *                               more than the error budget allows
+     */
+    public LoadReport loadWithReport() throws IOException, InvalidEntryException {
+
+        long startTime = System.nanoTime();
+
+        List<ChunkTask> chunks = split();
+
+        ForkJoinTask.invokeAll(chunks);
+
+        List<MessierObject> objects = new ArrayList<MessierObject>();
+        List<InvalidEntryException> errors = new ArrayList<InvalidEntryException>();
+        int linesBefore = 0;
+        long byteCount = 0;
+
+        for (ChunkTask chunk : chunks) {
+
+            if (chunk.ioException != null) {
+                throw chunk.ioException;
+            }
+
+            for (int i = 0; i < chunk.errors.size(); i++) {
+                errors.add(new InvalidEntryException(chunk.errors.get(i), linesBefore + chunk.errorLines.get(i)));
+            }
+
+            // A chunk only stops early once it alone is over budget, so every
+            // chunk before the one that breaks it was read in full, and the line
+            // numbers so far are right.
+            if (errors.size() > this.maxErrors) {
+
+                if (this.maxErrors == 0) {
+                    throw errors.get(0);
+                }
+
+                throw new InvalidEntryException(
+                        "More than " + this.maxErrors + " invalid entries. " + errors.get(this.maxErrors).getMessage());
+            }
+
+            objects.addAll(chunk.objects);
+            linesBefore += chunk.lineCount;
+            byteCount += chunk.end - chunk.start;
+        }
+
+        MessierCatalogue catalogue = new MessierCatalogue(objects.toArray(new MessierObject[objects.size()]));
+
+        return new LoadReport(catalogue, errors, linesBefore, byteCount, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Divide the file into chunks, each starting on a new line.
+     */
+    private List<ChunkTask> split() throws IOException {
+
+        List<ChunkTask> chunks = new ArrayList<ChunkTask>();
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            long count = Math.max(1, Math.min(this.chunkCount, size / this.minimumChunkSize));
+            long start = 0;
+
+            for (long i = 1; i <= count; i++) {
+
+                long end = i == count ? size : EntryReader.nextLineStart(channel, size * i / count);
+
+                // Long lines can swallow a whole chunk.
+                if (end > start || i == count) {
+                    chunks.add(new ChunkTask(start, end));
+                    start = end;
+                }
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Parses one chunk, collecting invalid entries until the loader's error
+     * budget runs out.
+     */
+    private class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long start;
+        private final long end;
+
+        private final List<MessierObject> objects = new ArrayList<MessierObject>();
+        private int lineCount;
+        private IOException ioException;
+
+        // Errors with their line numbers in the chunk.
+        private final List<InvalidEntryException> errors = new ArrayList<InvalidEntryException>();
+        private final List<Integer> errorLines = new ArrayList<Integer>();
+
+        ChunkTask(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+
+            try (EntryReader reader = new EntryReader(path, this.start, this.end)) {
+
+                String line = reader.readLine();
+
+                while (line != null && this.errors.size() <= maxErrors) {
+
+                    this.lineCount = reader.getLineNumber();
+
+                    try {
+                        this.objects.add(new MessierObject(line));
+
+                    } catch (InvalidEntryException exception) {
+                        this.errors.add(exception);
+                        this.errorLines.add(this.lineCount);
+                    }
+
+                    line = reader.readLine();
+                }
+
+            } catch (IOException exception) {
+                this.ioException = exception;
+            }
+        }
+    }
+}
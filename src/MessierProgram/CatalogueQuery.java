@@ -0,0 +1,482 @@
+package src.MessierProgram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A query over a Messier Catalogue, built up by chaining filters and then run
+ * by one of the terminal methods (stream, list, first, count, average...).
+ *
+ * When run, the query reads candidates from whichever of the catalogue's
+ * indexes gives the fewest, then checks the remaining filters in a single pass
+ * without building any intermediate catalogues. explain describes the index
+ * that was picked.
+ */
+public class CatalogueQuery {
+
+    private final MessierCatalogue catalogue;
+
+    private String messierNumber;
+    private String type;
+    private String constellation;
+    private final Map<Attribute, double[]> ranges = new EnumMap<Attribute, double[]>(Attribute.class);
+    private final List<Predicate<MessierObject>> predicates = new ArrayList<Predicate<MessierObject>>();
+
+    // Set when two filters contradict each other, so nothing can match.
+    private boolean unsatisfiable;
+
+    private Attribute orderAttribute;
+    private boolean descending;
+    private int limit = -1;
+
+    private String plan;
+
+    /**
+     * Constructor for a query over the passed catalogue. Use
+     * MessierCatalogue.query to create one.
+     *
+     * @param catalogue The catalogue to query
+     */
+    CatalogueQuery(MessierCatalogue catalogue) {
+        this.catalogue = catalogue;
+    }
+
+    /* --------------------------------- Filters -------------------------------- */
+
+    /**
+     * Keep objects with the passed Messier number.
+     *
+     * @param messierNumber The Messier number
+     * @return This query
+     */
+    public CatalogueQuery messierNumber(String messierNumber) {
+        this.messierNumber = matchExact(this.messierNumber, messierNumber);
+        return this;
+    }
+
+    /**
+     * Keep objects with the passed type.
+     *
+     * @param type The type
+     * @return This query
+     */
+    public CatalogueQuery type(String type) {
+        this.type = matchExact(this.type, type);
+        return this;
+    }
+
+    /**
+     * Keep objects with the passed constellation.
+     *
+     * @param constellation The constellation
+     * @return This query
+     */
+    public CatalogueQuery constellation(String constellation) {
+        this.constellation = matchExact(this.constellation, constellation);
+        return this;
+    }
+
+    /**
+     * Keep objects with an attribute between the bounds, inclusive.
+     *
+     * @param attribute The attribute
+     * @param low       The lower bound
+     * @param high      The upper bound
+     * @return This query
+     */
+    public CatalogueQuery between(Attribute attribute, double low, double high) {
+
+        double[] range = this.ranges.get(attribute);
+
+        if (range == null) {
+            this.ranges.put(attribute, new double[] { low, high });
+
+        } else {
+            range[0] = Math.max(range[0], low);
+            range[1] = Math.min(range[1], high);
+        }
+
+        this.plan = null;
+        return this;
+    }
+
+    /**
+     * Keep objects with an attribute strictly below a value.
+     *
+     * @param attribute The attribute
+     * @param value     The value
+     * @return This query
+     */
+    public CatalogueQuery below(Attribute attribute, double value) {
+        return between(attribute, Double.NEGATIVE_INFINITY, Math.nextDown(value));
+    }
+
+    /**
+     * Keep objects with an attribute strictly above a value.
+     *
+     * @param attribute The attribute
+     * @param value     The value
+     * @return This query
+     */
+    public CatalogueQuery above(Attribute attribute, double value) {
+        return between(attribute, Math.nextUp(value), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Keep objects brighter than an apparent magnitude.
+     *
+     * @param apparentMagnitude The apparent magnitude
+     * @return This query
+     */
+    public CatalogueQuery magnitudeBelow(double apparentMagnitude) {
+        return below(Attribute.APPARENT_MAGNITUDE, apparentMagnitude);
+    }
+
+    /**
+     * Keep objects fainter than an apparent magnitude.
+     *
+     * @param apparentMagnitude The apparent magnitude
+     * @return This query
+     */
+    public CatalogueQuery magnitudeAbove(double apparentMagnitude) {
+        return above(Attribute.APPARENT_MAGNITUDE, apparentMagnitude);
+    }
+
+    /**
+     * Keep objects matching a custom condition. These can't use an index, so are
+     * always checked against each candidate.
+     *
+     * @param predicate The condition
+     * @return This query
+     */
+    public CatalogueQuery where(Predicate<MessierObject> predicate) {
+        this.predicates.add(predicate);
+        return this;
+    }
+
+    /* ----------------------------- Order and limit ---------------------------- */
+
+    /**
+     * Order the results by an attribute, lowest first. Objects with equal values
+     * stay in catalogue order.
+     *
+     * @param attribute The attribute
+     * @return This query
+     */
+    public CatalogueQuery orderBy(Attribute attribute) {
+
+        this.orderAttribute = attribute;
+        this.descending = false;
+        this.plan = null;
+        return this;
+    }
+
+    /**
+     * Order the results by an attribute, highest first. Objects with equal values
+     * stay in catalogue order.
+     *
+     * @param attribute The attribute
+     * @return This query
+     */
+    public CatalogueQuery orderByDescending(Attribute attribute) {
+
+        this.orderAttribute = attribute;
+        this.descending = true;
+        this.plan = null;
+        return this;
+    }
+
+    /**
+     * Return at most n results.
+     *
+     * @param n The number of results
+     * @return This query
+     */
+    public CatalogueQuery limit(int n) {
+        this.limit = n;
+        return this;
+    }
+
+    /* -------------------------------- Terminals ------------------------------- */
+
+    /**
+     * Run the query, producing results as the stream is read.
+     *
+     * @return The matching objects
+     */
+    public Stream<MessierObject> stream() {
+
+        Stream<MessierObject> results = execute();
+
+        if (this.limit >= 0) {
+            results = results.limit(this.limit);
+        }
+
+        return results;
+    }
+
+    /**
+     * Run the query.
+     *
+     * @return A list of the matching objects
+     */
+    public List<MessierObject> list() {
+        return stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Run the query.
+     *
+     * @return A read-only Messier Catalogue of the matching objects
+     */
+    public MessierCatalogue toCatalogue() {
+        return this.catalogue.getView(list());
+    }
+
+    /**
+     * Run the query.
+     *
+     * @return The first matching object, or null if there are none
+     */
+    public MessierObject first() {
+        return stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Run the query.
+     *
+     * @return The number of matching objects
+     */
+    public int count() {
+        return (int) stream().count();
+    }
+
+    /**
+     * Run the query.
+     *
+     * @param attribute The attribute to average
+     * @return The mean value of the attribute over the matching objects, or NaN
+     *         if there are none
+     */
+    public double average(Attribute attribute) {
+
+        double total = 0.0;
+        int count = 0;
+
+        // Summed in order with a plain loop, so the result is the same as adding
+        // them up by hand.
+        Iterator<MessierObject> results = stream().iterator();
+
+        while (results.hasNext()) {
+            total += attribute.getValue(results.next());
+            count++;
+        }
+
+        return total / count;
+    }
+
+    /**
+     * Describe how the query reads its candidates: which index it uses, or that
+     * it scans the whole catalogue.
+     *
+     * @return The description
+     */
+    public String explain() {
+
+        if (this.plan == null) {
+            execute();
+        }
+
+        return this.plan;
+    }
+
+    /* -------------------------------- Planning -------------------------------- */
+
+    private String matchExact(String current, String value) {
+
+        if (current != null && !current.equals(value)) {
+            this.unsatisfiable = true;
+        }
+
+        this.plan = null;
+        return value;
+    }
+
+    /**
+     * Pick the source with the fewest candidates and apply everything else to it
+     * in one pass.
+     */
+    private Stream<MessierObject> execute() {
+
+        for (double[] range : this.ranges.values()) {
+
+            if (range[0] > range[1]) {
+                this.unsatisfiable = true;
+            }
+        }
+
+        if (this.unsatisfiable) {
+            this.plan = "none: filters contradict each other";
+            return Stream.empty();
+        }
+
+        // Start from a full scan, then look for an index that beats it.
+        String source = "scan";
+        List<MessierObject> candidates = this.catalogue.getList();
+        Attribute rangeSource = null;
+        boolean ordered = this.orderAttribute == null;
+
+        if (this.messierNumber != null) {
+            candidates = this.catalogue.getGroup(this.catalogue.getNumberIndex(), this.messierNumber);
+            source = "number";
+        }
+        if (this.type != null) {
+
+            List<MessierObject> group = this.catalogue.getGroup(this.catalogue.getTypeIndex(), this.type);
+
+            if (group.size() < candidates.size()) {
+                candidates = group;
+                source = "type";
+            }
+        }
+        if (this.constellation != null) {
+
+            List<MessierObject> group = this.catalogue.getGroup(this.catalogue.getConstellationIndex(),
+                    this.constellation);
+
+            if (group.size() < candidates.size()) {
+                candidates = group;
+                source = "constellation";
+            }
+        }
+
+        long bestSize = candidates.size();
+
+        for (Map.Entry<Attribute, double[]> range : this.ranges.entrySet()) {
+
+            // Only count as far as the current best, as anything past that loses.
+            long size = this.catalogue.getRangeIndex(range.getKey())
+                    .stream(range.getValue()[0], range.getValue()[1], false).limit(bestSize).count();
+
+            if (size < bestSize) {
+                bestSize = size;
+                rangeSource = range.getKey();
+            }
+        }
+
+        // With nothing more selective, read in order from the ordering index so a
+        // limit can stop early and no sort is needed.
+        if (rangeSource == null && source.equals("scan") && this.orderAttribute != null) {
+            rangeSource = this.orderAttribute;
+        }
+
+        Stream<MessierObject> results;
+
+        if (rangeSource != null) {
+
+            double[] range = this.ranges.get(rangeSource);
+            double low = range != null ? range[0] : Double.NEGATIVE_INFINITY;
+            double high = range != null ? range[1] : Double.POSITIVE_INFINITY;
+            boolean inOrder = rangeSource == this.orderAttribute;
+            RangeIndex index = this.catalogue.getRangeIndex(rangeSource);
+
+            // A range index reads in its own order, so unless that's the order
+            // wanted, read the matches back in catalogue order. Every other source
+            // is already in it.
+            results = inOrder ? index.stream(low, high, this.descending) : index.streamInListOrder(low, high);
+            ordered = ordered || inOrder;
+            source = (range != null ? "range " : "order ") + rangeSource;
+
+        } else {
+            results = candidates.stream();
+        }
+
+        this.plan = source.equals("scan") ? "scan: " + this.catalogue.size() + " objects"
+                : "index: " + source + (rangeSource == null ? " (" + candidates.size() + " candidates)" : "");
+
+        results = results.filter(fuseFilters(source, rangeSource));
+
+        if (!ordered) {
+            results = sortResults(results);
+        }
+
+        return results;
+    }
+
+    /**
+     * Combine every filter the chosen source doesn't already guarantee into one
+     * check.
+     */
+    private Predicate<MessierObject> fuseFilters(String source, Attribute rangeSource) {
+
+        String number = source.equals("number") ? null : this.messierNumber;
+        boolean checkType = this.type != null && !source.equals("type");
+        boolean checkConstellation = this.constellation != null && !source.equals("constellation");
+
+        // Compare dictionary ids rather than strings. A string that was never
+        // added gets an id no object holds, and so matches nothing.
+        int typeId = FieldDictionary.types.idOf(this.type);
+        int constellationId = FieldDictionary.constellations.idOf(this.constellation);
+
+        List<Attribute> attributes = new ArrayList<Attribute>();
+        List<double[]> bounds = new ArrayList<double[]>();
+
+        for (Map.Entry<Attribute, double[]> range : this.ranges.entrySet()) {
+
+            if (range.getKey() != rangeSource) {
+                attributes.add(range.getKey());
+                bounds.add(range.getValue().clone());
+            }
+        }
+
+        List<Predicate<MessierObject>> predicates = new ArrayList<Predicate<MessierObject>>(this.predicates);
+
+        return object -> {
+
+            if ((number != null && !number.equals(object.getMessierNumber()))
+                    || (checkType && typeId != object.getTypeId())
+                    || (checkConstellation && constellationId != object.getConstellationId())) {
+                return false;
+            }
+
+            for (int i = 0; i < attributes.size(); i++) {
+
+                double value = attributes.get(i).getValue(object);
+
+                if (!(value >= bounds.get(i)[0] && value <= bounds.get(i)[1])) {
+                    return false;
+                }
+            }
+
+            for (Predicate<MessierObject> predicate : predicates) {
+
+                if (!predicate.test(object)) {
+                    return false;
+                }
+            }
+
+            return true;
+        };
+    }
+
+    private Stream<MessierObject> sortResults(Stream<MessierObject> results) {
+
+        Attribute attribute = this.orderAttribute;
+        Comparator<MessierObject> comparator = Comparator.comparingDouble(attribute::getValue);
+
+        // Stream sorting is stable, so reversing only the comparison keeps ties in
+        // catalogue order.
+        if (this.descending) {
+            comparator = (first, second) -> Double.compare(attribute.getValue(second), attribute.getValue(first));
+        }
+
+        return results.sorted(comparator);
+    }
+}
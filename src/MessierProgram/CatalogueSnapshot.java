@@ -0,0 +1,289 @@
+package src.MessierProgram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A binary snapshot of a Messier Catalogue, so it can be loaded without
+ * parsing, validating and converting the text file again.
+ *
+ * The file holds a header, a table of every distinct string, then one fixed
+ * width column per field: string table ids for the text fields, and the
+ * parsed doubles, with positions already in radians. It's read memory mapped,
+ * with the numeric columns taken straight from the mapping.
+ *
+ * The header records the size and modification time of the text file the
+ * snapshot was made from, so a snapshot of an older file is never used, and a
+ * CRC32 of everything after the checksum, counts included, to catch
+ * corruption.
+ */
+public class CatalogueSnapshot {
+
+    private static final int magic = 0x4D534E50; // "MSNP"
+    private static final int version = 2;
+
+    // magic, version, checksum, source size, source modified time, row count,
+    // string count, name count.
+    private static final int headerSize = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4;
+
+    // Where the checksummed bytes start: straight after the checksum.
+    private static final int checksumEnd = 4 + 4 + 8;
+
+    // The fewest bytes a row takes: four text ids, a name start and five
+    // doubles.
+    private static final int minimumRowSize = 4 * 4 + 4 + 8 * 5;
+
+    /**
+     * Write a snapshot of a catalogue loaded from the passed text file. The
+     * snapshot is written to a temporary file first and moved into place, so a
+     * reader never sees half of one.
+     *
+     * @param catalogue The catalogue
+     * @param snapshot  The path to write the snapshot to
+     * @param source    The text file the catalogue was loaded from
+     * @throws IOException Thrown if either file can't be accessed
+     */
+    public static void write(MessierCatalogue catalogue, Path snapshot, Path source) throws IOException {
+
+        List<MessierObject> objects = catalogue.getList();
+        int rowCount = objects.size();
+
+        // Build the string table, giving each distinct string one id.
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        List<byte[]> strings = new ArrayList<byte[]>();
+        int[] textIds = new int[rowCount * 4];
+        int[] nameStarts = new int[rowCount + 1];
+        List<Integer> nameIds = new ArrayList<Integer>();
+        int stringBytes = 0;
+
+        for (int row = 0; row < rowCount; row++) {
+
+            MessierObject object = objects.get(row);
+            String[] fields = { object.getMessierNumber(), object.getNgcicNumber(), object.getType(),
+                    object.getConstellation() };
+
+            for (int field = 0; field < fields.length; field++) {
+                textIds[field * rowCount + row] = intern(fields[field], ids, strings);
+            }
+
+            nameStarts[row] = nameIds.size();
+
+            for (String name : object.getCommonNames()) {
+                nameIds.add(intern(name, ids, strings));
+            }
+        }
+
+        nameStarts[rowCount] = nameIds.size();
+
+        for (byte[] string : strings) {
+            stringBytes += 4 + string.length;
+        }
+
+        int size = headerSize + stringBytes + 4 * (textIds.length + nameStarts.length + nameIds.size())
+                + 8 * 5 * rowCount;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        buffer.putInt(magic).putInt(version).putLong(0).putLong(Files.size(source))
+                .putLong(Files.getLastModifiedTime(source).toMillis()).putInt(rowCount).putInt(strings.size())
+                .putInt(nameIds.size());
+
+        for (byte[] string : strings) {
+            buffer.putInt(string.length).put(string);
+        }
+
+        for (int id : textIds) {
+            buffer.putInt(id);
+        }
+        for (int start : nameStarts) {
+            buffer.putInt(start);
+        }
+        for (int id : nameIds) {
+            buffer.putInt(id);
+        }
+
+        for (Attribute attribute : new Attribute[] { Attribute.LOWEST_DISTANCE, Attribute.HIGHEST_DISTANCE,
+                Attribute.APPARENT_MAGNITUDE, Attribute.RIGHT_ASCENSION, Attribute.DECLINATION }) {
+
+            for (MessierObject object : objects) {
+                buffer.putDouble(attribute.getValue(object));
+            }
+        }
+
+        buffer.putLong(8, checksum(buffer.duplicate().position(checksumEnd).limit(size)));
+
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Check whether a snapshot exists and was made from the current version of
+     * the text file.
+     *
+     * @param snapshot The path to the snapshot
+     * @param source   The text file
+     * @return Whether the snapshot can be used in place of the text file
+     * @throws IOException Thrown if the text file can't be accessed
+     */
+    public static boolean isFresh(Path snapshot, Path source) throws IOException {
+
+        if (!Files.isRegularFile(snapshot)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+
+            if (channel.read(header, 0) != headerSize || header.getInt(0) != magic || header.getInt(4) != version) {
+                return false;
+            }
+
+            return header.getLong(16) == Files.size(source)
+                    && header.getLong(24) == Files.getLastModifiedTime(source).toMillis();
+        }
+    }
+
+    /**
+     * Read a snapshot.
+     *
+     * @param snapshot The path to the snapshot
+     * @return A new catalogue of the objects, in their original order
+     * @throws IOException Thrown if the snapshot can't be read, is from another
+     *                     version, fails its checksum or is malformed
+     */
+    public static MessierCatalogue read(Path snapshot) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), snapshot);
+
+        } catch (RuntimeException exception) {
+            // A malformed snapshot that slipped past the checks, which callers
+            // should treat like any other unreadable one.
+            throw new IOException("Catalogue snapshot is malformed: " + snapshot, exception);
+        }
+    }
+
+    private static MessierCatalogue read(MappedByteBuffer buffer, Path snapshot) throws IOException {
+
+        if (buffer.limit() < headerSize || buffer.getInt(0) != magic || buffer.getInt(4) != version) {
+            throw new IOException("Not a version " + version + " catalogue snapshot: " + snapshot);
+        }
+        if (buffer.getLong(8) != checksum(buffer.duplicate().position(checksumEnd))) {
+            throw new IOException("Catalogue snapshot failed its checksum: " + snapshot);
+        }
+
+        int rowCount = buffer.getInt(32);
+        int stringCount = buffer.getInt(36);
+        int nameCount = buffer.getInt(40);
+        int body = buffer.limit() - headerSize;
+
+        // Checked before allocating anything sized by them.
+        if (rowCount < 0 || rowCount > body / minimumRowSize || stringCount < 0 || stringCount > body / 4
+                || nameCount < 0 || nameCount > body / 4) {
+            throw new IOException("Catalogue snapshot has impossible counts: " + snapshot);
+        }
+
+        String[] strings = new String[stringCount];
+
+        buffer.position(headerSize);
+
+        for (int i = 0; i < strings.length; i++) {
+
+            int length = buffer.getInt();
+
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Catalogue snapshot has an impossible string length: " + snapshot);
+            }
+
+            byte[] string = new byte[length];
+
+            buffer.get(string);
+            strings[i] = new String(string, StandardCharsets.UTF_8);
+        }
+
+        int textIds = buffer.position();
+
+        // In longs, as the counts are still unchecked against each other.
+        if (textIds + 4L * (4 * rowCount + rowCount + 1 + nameCount) + 8L * 5 * rowCount != buffer.limit()) {
+            throw new IOException("Catalogue snapshot is the wrong size: " + snapshot);
+        }
+
+        int nameStarts = textIds + 4 * 4 * rowCount;
+        int nameIds = nameStarts + 4 * (rowCount + 1);
+        int doubles = nameIds + 4 * nameCount;
+
+        MessierObject[] objects = new MessierObject[rowCount];
+
+        for (int row = 0; row < rowCount; row++) {
+
+            int firstName = buffer.getInt(nameStarts + 4 * row);
+            int lastName = buffer.getInt(nameStarts + 4 * (row + 1));
+
+            if (firstName < 0 || lastName < firstName || lastName > nameCount) {
+                throw new IOException("Catalogue snapshot has impossible common names: " + snapshot);
+            }
+
+            String[] names = new String[lastName - firstName];
+
+            for (int i = 0; i < names.length; i++) {
+                names[i] = strings[buffer.getInt(nameIds + 4 * (firstName + i))];
+            }
+
+            try {
+                objects[row] = new MessierObject(strings[buffer.getInt(textIds + 4 * row)],
+                        strings[buffer.getInt(textIds + 4 * (rowCount + row))], Arrays.asList(names),
+                        strings[buffer.getInt(textIds + 4 * (2 * rowCount + row))],
+                        buffer.getDouble(doubles + 8 * row),
+                        buffer.getDouble(doubles + 8 * (rowCount + row)),
+                        strings[buffer.getInt(textIds + 4 * (3 * rowCount + row))],
+                        buffer.getDouble(doubles + 8 * (2 * rowCount + row)),
+                        buffer.getDouble(doubles + 8 * (3 * rowCount + row)),
+                        buffer.getDouble(doubles + 8 * (4 * rowCount + row)));
+
+            } catch (InvalidEntryException exception) {
+                // Only valid objects are ever written, so this is corruption the
+                // checksum missed.
+                throw new IOException("Catalogue snapshot holds an invalid entry: " + snapshot, exception);
+            }
+        }
+
+        return new MessierCatalogue(objects);
+    }
+
+    private static int intern(String string, Map<String, Integer> ids, List<byte[]> strings) {
+
+        Integer id = ids.get(string);
+
+        if (id == null) {
+            id = strings.size();
+            ids.put(string, id);
+            strings.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return id;
+    }
+
+    private static long checksum(ByteBuffer bytes) {
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,198 @@
+package src.MessierProgram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An append-only log of the objects added to and removed from a catalogue
+ * file, so an edit costs one short write rather than rewriting the file.
+ *
+ * Each line is "+ {entry}" for an add, in the database format, or
+ * "- {Messier number}" for a remove. The first line records the size and
+ * modification time of the catalogue file the log applies to. Once the file
+ * is rewritten that no longer matches, and the log is ignored and started
+ * again, so changes are never applied twice.
+ */
+public class ChangeLog {
+
+    private static final String headerPrefix = "# base ";
+    private static final String addPrefix = "+ ";
+    private static final String removePrefix = "- ";
+
+    private final Path path;
+    private final Path base;
+
+    /**
+     * Constructor for the log of changes to a catalogue file.
+     *
+     * @param path The path of the log
+     * @param base The catalogue file it applies to
+     */
+    public ChangeLog(Path path, Path base) {
+        this.path = path;
+        this.base = base;
+    }
+
+    /**
+     * Record that an object was added.
+     *
+     * @param messierObject The object
+     * @throws IOException Thrown if the log can't be written
+     */
+    public void appendAdd(MessierObject messierObject) throws IOException {
+        append(addPrefix + messierObject.toString());
+    }
+
+    /**
+     * Record that the first object with a Messier number was removed.
+     *
+     * @param messierNumber The Messier number
+     * @throws IOException Thrown if the log can't be written
+     */
+    public void appendRemove(String messierNumber) throws IOException {
+        append(removePrefix + messierNumber);
+    }
+
+    /**
+     * Check whether the log holds changes for the current catalogue file.
+     *
+     * @return Whether there are changes to apply
+     * @throws IOException Thrown if either file can't be read
+     */
+    public boolean hasChanges() throws IOException {
+        return isCurrent() && Files.size(this.path) > header().length();
+    }
+
+    /**
+     * Apply the logged changes to the objects of the catalogue file.
+     *
+     * @param objects The objects loaded from the catalogue file, in order
+     * @return The objects after the changes, in order
+     * @throws IOException           Thrown if the log can't be read
+     * @throws InvalidEntryException Thrown if the log holds an invalid entry, or
+     *                               removes an object that isn't there
+     */
+    public List<MessierObject> replay(List<MessierObject> objects) throws IOException, InvalidEntryException {
+
+        if (!isCurrent()) {
+            return objects;
+        }
+
+        List<MessierObject> changed = new ArrayList<MessierObject>(objects);
+        Map<String, ArrayDeque<MessierObject>> byNumber = new HashMap<String, ArrayDeque<MessierObject>>();
+        Set<MessierObject> removed = Collections.newSetFromMap(new IdentityHashMap<MessierObject, Boolean>());
+
+        for (MessierObject object : objects) {
+            byNumber.computeIfAbsent(object.getMessierNumber(), key -> new ArrayDeque<MessierObject>()).add(object);
+        }
+
+        try (EntryReader reader = new EntryReader(this.path)) {
+
+            // Skip the header.
+            String line = reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+
+                try {
+                    if (line.startsWith(addPrefix)) {
+
+                        MessierObject object = new MessierObject(line.substring(addPrefix.length()));
+
+                        changed.add(object);
+                        byNumber.computeIfAbsent(object.getMessierNumber(), key -> new ArrayDeque<MessierObject>())
+                                .add(object);
+
+                    } else if (line.startsWith(removePrefix)) {
+
+                        String messierNumber = line.substring(removePrefix.length());
+                        ArrayDeque<MessierObject> matches = byNumber.get(messierNumber);
+
+                        if (matches == null || matches.isEmpty()) {
+                            throw new InvalidEntryException(
+                                    "Messier number: " + messierNumber + " does not exist to be removed.");
+                        }
+
+                        removed.add(matches.poll());
+
+                    } else {
+                        throw new InvalidEntryException("Invalid change log entry, got: " + line);
+                    }
+
+                } catch (InvalidEntryException exception) {
+                    throw new InvalidEntryException(exception, reader.getLineNumber());
+                }
+            }
+        }
+
+        // Removals are marked and dropped in one pass, rather than shifting the
+        // list for each.
+        changed.removeIf(removed::contains);
+
+        return changed;
+    }
+
+    /**
+     * Empty the log, starting it again for the current catalogue file.
+     *
+     * @throws IOException Thrown if the log can't be written
+     */
+    public void reset() throws IOException {
+
+        Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        Files.write(temporary, header().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /* -------------------------------- Internals ------------------------------- */
+
+    private void append(String line) throws IOException {
+
+        if (!isCurrent()) {
+            reset();
+        }
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+
+            channel.write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Whether the log exists and was started for the current catalogue file.
+     */
+    private boolean isCurrent() throws IOException {
+
+        if (!Files.isRegularFile(this.path)) {
+            return false;
+        }
+
+        // Only the one header line is needed, so it's read through a plain
+        // reader. Mapping the file would hold it open until the mapping is
+        // collected, which on some systems blocks the move in reset.
+        try (BufferedReader reader = Files.newBufferedReader(this.path, StandardCharsets.UTF_8)) {
+            return (header().trim()).equals(reader.readLine());
+        }
+    }
+
+    private String header() throws IOException {
+        return headerPrefix + Files.size(this.base) + " " + Files.getLastModifiedTime(this.base).toMillis() + "\n";
+    }
+}
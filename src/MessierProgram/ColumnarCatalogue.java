@@ -0,0 +1,842 @@
+package src.MessierProgram;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * A Messier Catalogue stored column by column rather than object by object.
+ *
+ * Positions, magnitudes and distances live in primitive arrays, and types and
+ * constellations are stored as their FieldDictionary ids, so scans and
+ * aggregations run as tight loops over contiguous memory. Each position is
+ * also kept as a unit vector, so proximity scans rank rows on dot products
+ * rather than trig. Rows are read through a reusable Row cursor, or as a
+ * MessierObject built on first read.
+ *
+ * Appending is O(1) and lookups by Messier number use a hash index. Removing
+ * and sorting copy the columns, O(n), as a column store trades cheap updates
+ * for cheap scans. Views share the columns they were taken from, so they
+ * keep showing the rows as they were.
+ *
+ * Compared with MessierCatalogue there's no removeByReference, as rows aren't
+ * objects and have no references to remove by, and no query or range
+ * indexes. For those, take a MessierCatalogue with toCatalogue.
+ */
+public class ColumnarCatalogue {
+
+    private Columns columns;
+
+    // Rows visible through this catalogue, or null for every row.
+    private final int[] selection;
+
+    // First position of each Messier number in a view, built on first lookup.
+    // The whole catalogue uses the index kept by its columns instead.
+    private Map<String, Integer> viewNumberIndex;
+
+    /**
+     * Constructor for an empty catalogue.
+     */
+    public ColumnarCatalogue() {
+        this.columns = new Columns();
+        this.selection = null;
+    }
+
+    /**
+     * Constructor copying the objects of a Messier Catalogue into columns.
+     *
+     * @param catalogue The catalogue
+     */
+    public ColumnarCatalogue(MessierCatalogue catalogue) {
+
+        this.columns = new Columns();
+        this.selection = null;
+
+        for (MessierObject object : catalogue.getList()) {
+            add(object);
+        }
+    }
+
+    /**
+     * Constructor for a read-only selection of another catalogue's rows.
+     */
+    private ColumnarCatalogue(Columns columns, int[] selection) {
+        this.columns = columns;
+        this.selection = selection;
+    }
+
+    /* ---------------------------- Mutating the set ---------------------------- */
+
+    /**
+     * Add an object to the end of the catalogue.
+     *
+     * @param messierObject The Messier Object
+     */
+    public void add(MessierObject messierObject) {
+        checkWritable();
+        this.columns.add(messierObject);
+    }
+
+    /**
+     * Remove the first row with the passed Messier number.
+     *
+     * @param messierNumber The Messier number
+     * @throws NoSuchElementException Thrown if the object is not found
+     */
+    public void removeByNumber(String messierNumber) throws NoSuchElementException {
+
+        checkWritable();
+
+        int removed = indexOf(messierNumber);
+
+        if (removed == -1) {
+            throw new NoSuchElementException("Messier number: " + messierNumber + " does not exist.");
+        }
+
+        this.columns = this.columns.copy(IntStream.range(0, size()).filter(row -> row != removed).toArray());
+    }
+
+    /**
+     * Remove every row.
+     */
+    public void removeAll() {
+        checkWritable();
+        this.columns = new Columns();
+    }
+
+    /**
+     * Replace the rows with the passed objects.
+     *
+     * @param list The Messier Objects
+     */
+    public void setList(List<MessierObject> list) {
+
+        checkWritable();
+
+        Columns columns = new Columns();
+
+        for (MessierObject object : list) {
+            columns.add(object);
+        }
+
+        this.columns = columns;
+    }
+
+    /**
+     * Sort the rows on apparent magnitude, as MessierCatalogue's sort does. Rows
+     * with equal magnitudes keep their order.
+     */
+    public void sort() {
+
+        checkWritable();
+
+        double[] magnitudes = this.columns.apparentMagnitudes;
+
+        this.columns = this.columns.copy(IntStream.range(0, size()).boxed()
+                .sorted(Comparator.comparingDouble(row -> magnitudes[row])).mapToInt(Integer::intValue).toArray());
+    }
+
+    private void checkWritable() {
+
+        if (this.selection != null) {
+            throw new UnsupportedOperationException("Cannot modify a read-only view of a catalogue.");
+        }
+    }
+
+    /* ---------------------------- Catalogue Queries --------------------------- */
+
+    /**
+     * Get the number of rows.
+     *
+     * @return The size of the catalogue
+     */
+    public int size() {
+        return this.selection != null ? this.selection.length : this.columns.size;
+    }
+
+    /**
+     * See if the catalogue is empty.
+     *
+     * @return Whether or not it is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Get a Messier Object for the row at the given index. It's built the first
+     * time the row is read, without validating the values again, and the same
+     * object is returned after that, so treat it as read-only.
+     *
+     * @param index The index
+     * @return The Messier Object
+     */
+    public MessierObject get(int index) {
+        return this.columns.object(rowAt(index));
+    }
+
+    /**
+     * Get the rows as a read-only list of Messier Objects, each built on first
+     * read.
+     *
+     * @return The list
+     */
+    public List<MessierObject> getList() {
+        return new RowList();
+    }
+
+    /**
+     * Get a cursor reading the row at the given index. The cursor can be moved
+     * to other rows, so one can be reused for a whole scan.
+     *
+     * @param index The index
+     * @return The cursor
+     */
+    public Row getRow(int index) {
+
+        Row row = new Row();
+        row.moveTo(index);
+
+        return row;
+    }
+
+    /**
+     * Visit every row with a single cursor.
+     *
+     * @param action What to do with each row
+     */
+    public void forEachRow(Consumer<Row> action) {
+
+        Row row = new Row();
+
+        for (int i = 0; i < size(); i++) {
+            row.moveTo(i);
+            action.accept(row);
+        }
+    }
+
+    /**
+     * Get the first row with the passed Messier number.
+     *
+     * @param messierNumber The Messier number
+     * @return The Messier Object for the row
+     * @throws NoSuchElementException Thrown if the object is not found
+     */
+    public MessierObject getByMessierNumber(String messierNumber) throws NoSuchElementException {
+
+        int index = indexOf(messierNumber);
+
+        if (index == -1) {
+            throw new NoSuchElementException("Messier number: " + messierNumber + " does not exist.");
+        }
+
+        return get(index);
+    }
+
+    /**
+     * Find the first row with the passed Messier number.
+     *
+     * @param messierNumber The Messier number
+     * @return The index, or -1 if there is none
+     */
+    public int indexOf(String messierNumber) {
+
+        if (this.selection == null) {
+
+            Integer row = this.columns.firstRows.get(messierNumber);
+
+            return row != null ? row : -1;
+        }
+
+        if (this.viewNumberIndex == null) {
+
+            this.viewNumberIndex = new HashMap<String, Integer>();
+
+            for (int i = 0; i < this.selection.length; i++) {
+                this.viewNumberIndex.putIfAbsent(this.columns.messierNumbers[this.selection[i]], i);
+            }
+        }
+
+        Integer index = this.viewNumberIndex.get(messierNumber);
+
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Get a read-only view of the rows of the passed type.
+     *
+     * @param type The type
+     * @return The view
+     */
+    public ColumnarCatalogue getByType(String type) {
+        return select(this.columns.typeIds, FieldDictionary.types.idOf(type));
+    }
+
+    /**
+     * Get a read-only view of the rows in the passed constellation.
+     *
+     * @param constellation The constellation
+     * @return The view
+     */
+    public ColumnarCatalogue getByConstellation(String constellation) {
+        return select(this.columns.constellationIds, FieldDictionary.constellations.idOf(constellation));
+    }
+
+    /**
+     * Get the mean value of an attribute over every row.
+     *
+     * @param attribute The attribute
+     * @return The mean, or NaN if the catalogue is empty
+     */
+    public double average(Attribute attribute) {
+
+        double[] column = this.columns.column(attribute);
+        double total = 0.0;
+
+        if (this.selection == null) {
+
+            for (int i = 0; i < this.columns.size; i++) {
+                total += column[i];
+            }
+
+        } else {
+
+            for (int row : this.selection) {
+                total += column[row];
+            }
+        }
+
+        return total / size();
+    }
+
+    /**
+     * Get the index of the first row with the lowest value of an attribute.
+     *
+     * @param attribute The attribute
+     * @return The index, or -1 if the catalogue is empty
+     */
+    public int indexOfLowest(Attribute attribute) {
+
+        double[] column = this.columns.column(attribute);
+        int lowest = -1;
+
+        for (int i = 0; i < size(); i++) {
+
+            if (lowest == -1 || column[rowAt(i)] < column[rowAt(lowest)]) {
+                lowest = i;
+            }
+        }
+
+        return lowest;
+    }
+
+    /**
+     * Get the index of the first row with the highest value of an attribute.
+     *
+     * @param attribute The attribute
+     * @return The index, or -1 if the catalogue is empty
+     */
+    public int indexOfHighest(Attribute attribute) {
+
+        double[] column = this.columns.column(attribute);
+        int highest = -1;
+
+        for (int i = 0; i < size(); i++) {
+
+            if (highest == -1 || column[rowAt(i)] > column[rowAt(highest)]) {
+                highest = i;
+            }
+        }
+
+        return highest;
+    }
+
+    /**
+     * Find the row with the lowest non-zero angular distance to the passed
+     * object, scanning the unit vector columns. Ties go to the first row, as
+     * with MessierCatalogue.getClosest.
+     *
+     * @param object The object to be compared to
+     * @return The Messier Object for the row, the first row if every row is at
+     *         zero distance, or null if the catalogue is empty
+     */
+    public MessierObject getClosest(MessierObject object) {
+
+        if (isEmpty()) {
+            return null;
+        }
+
+        ColumnarCatalogue closest = getKNearest(object, 1);
+
+        return closest.isEmpty() ? get(0) : closest.get(0);
+    }
+
+    /**
+     * Get a read-only view of the k rows with the lowest non-zero angular
+     * distance to the passed object, closest first. Rows are ranked on 1 - the
+     * dot product of the unit vectors, which orders them as the angular
+     * distance would without an acos per row.
+     *
+     * @param object The object to be compared to
+     * @param k      The number of rows to return
+     * @return The view, holding at most k rows
+     */
+    public ColumnarCatalogue getKNearest(MessierObject object, int k) {
+
+        double x = object.getUnitX();
+        double y = object.getUnitY();
+        double z = object.getUnitZ();
+
+        // The best so far, kept sorted. A later row only displaces one that's
+        // strictly further, so ties keep the earlier row.
+        int[] rows = new int[Math.max(0, Math.min(k, size()))];
+        double[] distances = new double[rows.length];
+        int count = 0;
+
+        for (int i = 0; i < size() && rows.length != 0; i++) {
+
+            int row = rowAt(i);
+            double dot = this.columns.dot(row, x, y, z);
+            double distance = 1 - dot;
+
+            if (SpatialIndex.isSamePosition(dot) || Double.isNaN(distance)
+                    || (count == rows.length && distance >= distances[count - 1])) {
+                continue;
+            }
+
+            int position = count < rows.length ? count++ : count - 1;
+
+            for (; position > 0 && distances[position - 1] > distance; position--) {
+                rows[position] = rows[position - 1];
+                distances[position] = distances[position - 1];
+            }
+
+            rows[position] = row;
+            distances[position] = distance;
+        }
+
+        return new ColumnarCatalogue(this.columns, Arrays.copyOf(rows, count));
+    }
+
+    /**
+     * Get a read-only view of the rows within an angular distance of the passed
+     * object, closest first. As with getClosest, rows at zero distance are
+     * skipped.
+     *
+     * @param object The centre of the search
+     * @param radius The angular radius in radians
+     * @return The view
+     */
+    public ColumnarCatalogue getWithinRadius(MessierObject object, double radius) {
+        return withinRadius(object.getRightAscensionRadians(), object.getDeclinationRadians(), radius, true);
+    }
+
+    /**
+     * Get a read-only view of the rows within an angular distance of a position
+     * on the sky, closest first. Ties keep their row order.
+     *
+     * @param rightAscension The right ascension of the centre in radians
+     * @param declination    The declination of the centre in radians
+     * @param radius         The angular radius in radians
+     * @return The view
+     */
+    public ColumnarCatalogue getWithinRadius(double rightAscension, double declination, double radius) {
+        return withinRadius(rightAscension, declination, radius, false);
+    }
+
+    /**
+     * Build a Messier Catalogue holding a Messier Object for every row.
+     *
+     * @return The catalogue
+     */
+    public MessierCatalogue toCatalogue() {
+
+        MessierCatalogue catalogue = new MessierCatalogue();
+
+        forEachRow(row -> catalogue.add(row.toMessierObject()));
+
+        return catalogue;
+    }
+
+    /**
+     * Create a string containing the rows in the database format.
+     *
+     * @return The string
+     */
+    public String toString() {
+
+        StringBuilder catalogue = new StringBuilder();
+
+        forEachRow(row -> {
+
+            if (catalogue.length() != 0) {
+                catalogue.append('\n');
+            }
+
+            catalogue.append(row.toMessierObject().toString());
+        });
+
+        return catalogue.toString();
+    }
+
+    private int rowAt(int index) {
+
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+
+        return this.selection != null ? this.selection[index] : index;
+    }
+
+    private ColumnarCatalogue withinRadius(double rightAscension, double declination, double radius,
+            boolean skipCentre) {
+
+        double sinDeclination = Math.sin(declination);
+        double cosDeclination = Math.cos(declination);
+        double x = cosDeclination * Math.cos(rightAscension);
+        double y = cosDeclination * Math.sin(rightAscension);
+        double minimumDot = radius < 0 ? Double.POSITIVE_INFINITY : SpatialIndex.minimumDot(radius);
+
+        int[] rows = new int[16];
+        double[] distances = new double[16];
+        int count = 0;
+
+        for (int i = 0; i < size(); i++) {
+
+            int row = rowAt(i);
+            double dot = this.columns.dot(row, x, y, sinDeclination);
+
+            // The dot product rules out most rows. The exact distance is only
+            // taken for the rest, from the cached trig of both positions, so
+            // the boundary matches MessierObject.calcAngularDistance.
+            if (dot < minimumDot || (skipCentre && SpatialIndex.isSamePosition(dot))) {
+                continue;
+            }
+
+            double distance = AngularDistanceFormula.LAW_OF_COSINES.calculate(rightAscension, declination,
+                    sinDeclination, cosDeclination, this.columns.rightAscensions[row], this.columns.declinations[row],
+                    this.columns.unitZs[row], this.columns.cosDeclinations[row]);
+
+            if (distance <= radius) {
+
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                    distances = Arrays.copyOf(distances, count * 2);
+                }
+
+                rows[count] = row;
+                distances[count] = distance;
+                count++;
+            }
+        }
+
+        // A stable sort on distance, so ties keep their row order.
+        double[] hitDistances = distances;
+        int[] order = IntStream.range(0, count).boxed()
+                .sorted(Comparator.comparingDouble(hit -> hitDistances[hit])).mapToInt(Integer::intValue).toArray();
+        int[] sorted = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            sorted[i] = rows[order[i]];
+        }
+
+        return new ColumnarCatalogue(this.columns, sorted);
+    }
+
+    private ColumnarCatalogue select(int[] ids, int id) {
+
+        int[] rows = new int[size()];
+        int count = 0;
+
+        for (int i = 0; i < size(); i++) {
+
+            int row = this.selection != null ? this.selection[i] : i;
+
+            if (ids[row] == id) {
+                rows[count++] = row;
+            }
+        }
+
+        return new ColumnarCatalogue(this.columns, Arrays.copyOf(rows, count));
+    }
+
+    /* ---------------------------------- Rows ---------------------------------- */
+
+    /**
+     * A movable cursor over one row, with the same getters as MessierObject.
+     */
+    public class Row {
+
+        private int row;
+
+        private Row() {
+        }
+
+        /**
+         * Point the cursor at another row.
+         *
+         * @param index The index of the row in the catalogue
+         */
+        public void moveTo(int index) {
+            this.row = rowAt(index);
+        }
+
+        public String getMessierNumber() {
+            return columns.messierNumbers[this.row];
+        }
+
+        public String getNgcicNumber() {
+            return columns.ngcicNumbers[this.row];
+        }
+
+        public List<String> getCommonNames() {
+            return columns.commonNames(this.row);
+        }
+
+        public String getType() {
+            return FieldDictionary.types.get(columns.typeIds[this.row]);
+        }
+
+        public double getLowestDistance() {
+            return columns.lowestDistances[this.row];
+        }
+
+        public double getMeanDistance() {
+            return (columns.lowestDistances[this.row] + columns.highestDistances[this.row]) / 2;
+        }
+
+        public double getHighestDistance() {
+            return columns.highestDistances[this.row];
+        }
+
+        public String getConstellation() {
+            return FieldDictionary.constellations.get(columns.constellationIds[this.row]);
+        }
+
+        public double getApparentMagnitude() {
+            return columns.apparentMagnitudes[this.row];
+        }
+
+        public double getRightAscensionRadians() {
+            return columns.rightAscensions[this.row];
+        }
+
+        public double getDeclinationRadians() {
+            return columns.declinations[this.row];
+        }
+
+        /**
+         * Build a Messier Object holding this row's values.
+         *
+         * @return A new Messier Object
+         */
+        public MessierObject toMessierObject() {
+
+            return columns.build(this.row);
+        }
+    }
+
+    /**
+     * Read-only list over the rows, reading each through get.
+     */
+    private class RowList extends AbstractList<MessierObject> implements RandomAccess {
+
+        @Override
+        public MessierObject get(int index) {
+            return ColumnarCatalogue.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return ColumnarCatalogue.this.size();
+        }
+    }
+
+    /* --------------------------------- Storage -------------------------------- */
+
+    /**
+     * The column arrays, shared between a catalogue and its views. Rows are only
+     * ever appended, so a view's rows never change under it.
+     */
+    private static class Columns {
+
+        private int size;
+
+        // First row of each Messier number.
+        private final Map<String, Integer> firstRows = new HashMap<String, Integer>();
+
+        private String[] messierNumbers = new String[16];
+        private String[] ngcicNumbers = new String[16];
+
+        // Names are null until first read for rows copied from an object that
+        // hadn't split its field yet. The field is kept until then.
+        private final List<List<String>> commonNames = new ArrayList<List<String>>();
+        private String[] commonNamesFields = new String[16];
+        private int[] typeIds = new int[16];
+        private double[] lowestDistances = new double[16];
+        private double[] highestDistances = new double[16];
+        private int[] constellationIds = new int[16];
+        private double[] apparentMagnitudes = new double[16];
+        private double[] rightAscensions = new double[16];
+        private double[] declinations = new double[16];
+
+        // Derived from the position, as MessierObject caches them.
+        private double[] unitXs = new double[16];
+        private double[] unitYs = new double[16];
+        private double[] unitZs = new double[16];
+        private double[] cosDeclinations = new double[16];
+
+        // Built from the row on first read.
+        private MessierObject[] objects = new MessierObject[16];
+
+        private void add(MessierObject object) {
+
+            if (this.size == this.messierNumbers.length) {
+                grow(this.size * 2);
+            }
+
+            String commonNamesField = object.getCommonNamesField();
+
+            this.messierNumbers[this.size] = object.getMessierNumber();
+            this.ngcicNumbers[this.size] = object.getNgcicNumber();
+            this.commonNames.add(commonNamesField == null ? object.getCommonNames() : null);
+            this.commonNamesFields[this.size] = commonNamesField;
+            this.typeIds[this.size] = object.getTypeId();
+            this.lowestDistances[this.size] = object.getLowestDistance();
+            this.highestDistances[this.size] = object.getHighestDistance();
+            this.constellationIds[this.size] = object.getConstellationId();
+            this.apparentMagnitudes[this.size] = object.getApparentMagnitude();
+            this.rightAscensions[this.size] = object.getRightAscensionRadians();
+            this.declinations[this.size] = object.getDeclinationRadians();
+            this.unitXs[this.size] = object.getUnitX();
+            this.unitYs[this.size] = object.getUnitY();
+            this.unitZs[this.size] = object.getUnitZ();
+            this.cosDeclinations[this.size] = Math.cos(object.getDeclinationRadians());
+
+            this.firstRows.putIfAbsent(object.getMessierNumber(), this.size);
+            this.size++;
+        }
+
+        /**
+         * Copy some of the rows into new columns.
+         *
+         * @param rows The rows to copy, in their new order
+         * @return The new columns
+         */
+        private Columns copy(int[] rows) {
+
+            Columns copy = new Columns();
+
+            copy.grow(Math.max(16, rows.length));
+
+            for (int row : rows) {
+
+                int i = copy.size++;
+
+                copy.messierNumbers[i] = this.messierNumbers[row];
+                copy.ngcicNumbers[i] = this.ngcicNumbers[row];
+                copy.commonNames.add(this.commonNames.get(row));
+                copy.commonNamesFields[i] = this.commonNamesFields[row];
+                copy.typeIds[i] = this.typeIds[row];
+                copy.lowestDistances[i] = this.lowestDistances[row];
+                copy.highestDistances[i] = this.highestDistances[row];
+                copy.constellationIds[i] = this.constellationIds[row];
+                copy.apparentMagnitudes[i] = this.apparentMagnitudes[row];
+                copy.rightAscensions[i] = this.rightAscensions[row];
+                copy.declinations[i] = this.declinations[row];
+                copy.unitXs[i] = this.unitXs[row];
+                copy.unitYs[i] = this.unitYs[row];
+                copy.unitZs[i] = this.unitZs[row];
+                copy.cosDeclinations[i] = this.cosDeclinations[row];
+                copy.objects[i] = this.objects[row];
+                copy.firstRows.putIfAbsent(copy.messierNumbers[i], i);
+            }
+
+            return copy;
+        }
+
+        private void grow(int capacity) {
+
+            this.messierNumbers = Arrays.copyOf(this.messierNumbers, capacity);
+            this.ngcicNumbers = Arrays.copyOf(this.ngcicNumbers, capacity);
+            this.commonNamesFields = Arrays.copyOf(this.commonNamesFields, capacity);
+            this.typeIds = Arrays.copyOf(this.typeIds, capacity);
+            this.lowestDistances = Arrays.copyOf(this.lowestDistances, capacity);
+            this.highestDistances = Arrays.copyOf(this.highestDistances, capacity);
+            this.constellationIds = Arrays.copyOf(this.constellationIds, capacity);
+            this.apparentMagnitudes = Arrays.copyOf(this.apparentMagnitudes, capacity);
+            this.rightAscensions = Arrays.copyOf(this.rightAscensions, capacity);
+            this.declinations = Arrays.copyOf(this.declinations, capacity);
+            this.unitXs = Arrays.copyOf(this.unitXs, capacity);
+            this.unitYs = Arrays.copyOf(this.unitYs, capacity);
+            this.unitZs = Arrays.copyOf(this.unitZs, capacity);
+            this.cosDeclinations = Arrays.copyOf(this.cosDeclinations, capacity);
+            this.objects = Arrays.copyOf(this.objects, capacity);
+        }
+
+        private double dot(int row, double x, double y, double z) {
+            return this.unitXs[row] * x + this.unitYs[row] * y + this.unitZs[row] * z;
+        }
+
+        private List<String> commonNames(int row) {
+
+            List<String> names = this.commonNames.get(row);
+
+            if (names == null && this.commonNamesFields[row] != null) {
+                names = EntryParser.splitNames(this.commonNamesFields[row]);
+                this.commonNames.set(row, names);
+                this.commonNamesFields[row] = null;
+            }
+
+            return names;
+        }
+
+        private MessierObject object(int row) {
+
+            MessierObject object = this.objects[row];
+
+            if (object == null) {
+                object = build(row);
+                this.objects[row] = object;
+            }
+
+            return object;
+        }
+
+        /**
+         * Build a new Messier Object holding a row's values. Every row was
+         * copied from a valid Messier Object, so there's nothing to check, and
+         * an unsplit names field is passed on as it is.
+         */
+        private MessierObject build(int row) {
+            return new MessierObject(this.messierNumbers[row], this.ngcicNumbers[row], this.commonNames.get(row),
+                    this.commonNamesFields[row], this.typeIds[row], this.lowestDistances[row],
+                    this.highestDistances[row], this.constellationIds[row], this.apparentMagnitudes[row],
+                    this.rightAscensions[row], this.declinations[row]);
+        }
+
+        private double[] column(Attribute attribute) {
+
+            switch (attribute) {
+                case APPARENT_MAGNITUDE:
+                    return this.apparentMagnitudes;
+                case LOWEST_DISTANCE:
+                    return this.lowestDistances;
+                case HIGHEST_DISTANCE:
+                    return this.highestDistances;
+                case RIGHT_ASCENSION:
+                    return this.rightAscensions;
+                default:
+                    return this.declinations;
+            }
+        }
+    }
+}
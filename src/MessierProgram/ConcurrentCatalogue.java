@@ -0,0 +1,97 @@
+package src.MessierProgram;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * A Messier Catalogue that many threads can read while others change it.
+ *
+ * Readers take a snapshot: a frozen MessierCatalogue with every index already
+ * built, which never changes, so lookups, filters and getClosest on it run
+ * without any locking and always see one consistent version. Writers copy the
+ * current snapshot, apply their changes, and publish the frozen copy. Writes
+ * are serialised, and each costs a copy and an index build, so batch changes
+ * into one update where possible.
+ *
+ * The Messier Objects themselves are shared between snapshots, so they must
+ * not be changed once added.
+ */
+public class ConcurrentCatalogue {
+
+    private volatile MessierCatalogue snapshot;
+
+    private final Object writeLock = new Object();
+
+    /**
+     * Constructor for an empty catalogue.
+     */
+    public ConcurrentCatalogue() {
+        this(new MessierCatalogue());
+    }
+
+    /**
+     * Constructor copying the objects of a Messier Catalogue.
+     *
+     * @param catalogue The catalogue
+     */
+    public ConcurrentCatalogue(MessierCatalogue catalogue) {
+        this.snapshot = copyOf(catalogue);
+        this.snapshot.freeze();
+    }
+
+    /**
+     * Get the current version of the catalogue. It's frozen, so it won't change
+     * however long it's held, and later updates won't be visible through it.
+     *
+     * @return The snapshot
+     */
+    public MessierCatalogue snapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Apply a batch of changes, e.g. update(catalogue -> catalogue.add(object)).
+     * Readers see either none of the changes or all of them.
+     *
+     * @param changes The changes, applied to a writable copy of the current
+     *                snapshot
+     */
+    public void update(Consumer<MessierCatalogue> changes) {
+
+        synchronized (this.writeLock) {
+
+            MessierCatalogue next = copyOf(this.snapshot);
+
+            changes.accept(next);
+            next.freeze();
+
+            this.snapshot = next;
+        }
+    }
+
+    /**
+     * Add an object.
+     *
+     * @param messierObject The Messier Object
+     */
+    public void add(MessierObject messierObject) {
+        update(catalogue -> catalogue.add(messierObject));
+    }
+
+    /**
+     * Add several objects as one update.
+     *
+     * @param messierObjects The Messier Objects
+     */
+    public void addAll(Collection<MessierObject> messierObjects) {
+        update(catalogue -> catalogue.addAll(messierObjects));
+    }
+
+    public int size() {
+        return this.snapshot.size();
+    }
+
+    private static MessierCatalogue copyOf(MessierCatalogue catalogue) {
+        return new MessierCatalogue(catalogue.getList().toArray(new MessierObject[0]));
+    }
+}
@@ -0,0 +1,324 @@
+package src.MessierProgram;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.text.DecimalFormat;
+import java.util.List;
+
+/**
+ * Writes Messier Objects in the database format straight into an Appendable,
+ * or as UTF-8 into a ByteBuffer, the counterpart of EntryParser.
+ *
+ * Seconds and arc seconds are formatted by hand rather than with a new
+ * DecimalFormat for every value, giving the same text as the pattern "#.0000":
+ * no leading zero, four decimal places, rounded half even. Values near a
+ * rounding tie still go through DecimalFormat, one per thread.
+ */
+public class EntryFormatter {
+
+    private static final String fieldSeparator = ", ";
+
+    // Values this large or rounding this close to a tie go to DecimalFormat.
+    // Below the limit the scaled value is off by under 1e-7 units, so the
+    // margin keeps the rounding direction certain.
+    private static final double fastLimit = 1e5;
+    private static final double tieMargin = 1e-6;
+
+    // DecimalFormat isn't thread safe, so each thread keeps its own.
+    private static final ThreadLocal<DecimalFormat> fixedFormat = ThreadLocal
+            .withInitial(() -> new DecimalFormat("#.0000"));
+
+    /**
+     * Append an object in the database format, as MessierObject.toString gives.
+     *
+     * @param object The Messier Object
+     * @param out    Where to append it
+     * @throws IOException Thrown if the Appendable can't be written to
+     */
+    public static void appendEntry(MessierObject object, Appendable out) throws IOException {
+
+        out.append(object.getMessierNumber()).append(fieldSeparator);
+        out.append(object.getNgcicNumber()).append(fieldSeparator);
+        appendCommonNames(object.getCommonNames(), out);
+        out.append(fieldSeparator).append(object.getType()).append(fieldSeparator);
+        appendDistanceRange(object.getLowestDistance(), object.getHighestDistance(), out);
+        out.append(fieldSeparator).append(object.getConstellation()).append(fieldSeparator);
+        appendDouble(object.getApparentMagnitude(), out);
+        out.append(fieldSeparator);
+        appendRightAscension(object.getRightAscensionRadians(), out);
+        out.append(fieldSeparator);
+        appendDeclination(object.getDeclinationRadians(), out);
+    }
+
+    /**
+     * Write an object in the database format as UTF-8, straight into a
+     * ByteBuffer with no intermediate string.
+     *
+     * @param object The Messier Object
+     * @param out    Where to write it
+     * @throws BufferOverflowException Thrown if it doesn't fit
+     */
+    public static void writeEntry(MessierObject object, ByteBuffer out) throws BufferOverflowException {
+
+        try {
+            appendEntry(object, utf8(out));
+
+        } catch (IOException exception) {
+            // The sink never throws.
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Get an Appendable that encodes what's appended to it as UTF-8 into a
+     * ByteBuffer, so several entries can be written through one.
+     *
+     * @param out Where to write
+     * @return The Appendable, which throws BufferOverflowException if the
+     *         buffer fills up
+     */
+    static Appendable utf8(ByteBuffer out) {
+        return new Utf8Sink(out);
+    }
+
+    /**
+     * Append common names as "{name1}, {name2}, or {name3}", quoted.
+     */
+    public static void appendCommonNames(List<String> commonNames, Appendable out) throws IOException {
+
+        out.append('\"');
+
+        for (int i = 0; i < commonNames.size(); i++) {
+
+            if (i == 0) {
+                out.append(commonNames.get(i));
+
+            } else if (i == commonNames.size() - 1 && commonNames.size() != 2) {
+                out.append(", or ").append(commonNames.get(i));
+
+            } else if (i == commonNames.size() - 1 && commonNames.size() == 2) {
+                out.append(" or ").append(commonNames.get(i));
+
+            } else {
+                out.append(", ").append(commonNames.get(i));
+            }
+        }
+
+        out.append('\"');
+    }
+
+    /**
+     * Append a distance range as "{shortest}-{longest}", or one value if they're
+     * equal.
+     */
+    public static void appendDistanceRange(double lowestDistance, double highestDistance, Appendable out)
+            throws IOException {
+
+        appendDouble(lowestDistance, out);
+
+        if (Double.compare(lowestDistance, highestDistance) != 0) {
+            out.append('-');
+            appendDouble(highestDistance, out);
+        }
+    }
+
+    /**
+     * Append right ascension in radians as "(hours)h (minutes)m (seconds)s".
+     */
+    public static void appendRightAscension(double rightAscensionRad, Appendable out) throws IOException {
+
+        double time = Math.toDegrees(rightAscensionRad) / 15;
+
+        double hours = Math.floor(time);
+        double minutes = Math.floor((time - hours) * 60);
+        double seconds = (((time - hours) * 60) - minutes) * 60.0;
+
+        appendInt((int) hours, out);
+        out.append("h ");
+        appendInt((int) minutes, out);
+        out.append("m ");
+        appendFixed(seconds, out);
+        out.append('s');
+    }
+
+    /**
+     * Append declination in radians as "(degrees)° (arcMinutes)' (arcSeconds)"".
+     */
+    public static void appendDeclination(double declinationRad, Appendable out) throws IOException {
+
+        double angle = Math.toDegrees(declinationRad);
+
+        double degrees = Math.floor(angle);
+        double arcMinutes = Math.floor((angle - degrees) * 60);
+        double arcSeconds = (((angle - degrees) * 60) - arcMinutes) * 60.0;
+
+        appendInt((int) degrees, out);
+        out.append("° ");
+        appendInt((int) arcMinutes, out);
+        out.append("' ");
+        appendFixed(arcSeconds, out);
+        out.append('\"');
+    }
+
+    /* --------------------------------- Numbers -------------------------------- */
+
+    /**
+     * Append a value the way DecimalFormat("#.0000") formats it.
+     *
+     * @param value The value
+     * @param out   Where to append it
+     * @throws IOException Thrown if the Appendable can't be written to
+     */
+    public static void appendFixed(double value, Appendable out) throws IOException {
+
+        double scaled = value * 10000;
+        double fraction = scaled - Math.floor(scaled);
+
+        // The product is only off by rounding, so unless it lands near a tie it
+        // rounds the same way the exact value would.
+        // Negative values, including -0.0, keep their sign in DecimalFormat.
+        if (!(Math.copySign(1.0, value) > 0 && value < fastLimit) || Math.abs(fraction - 0.5) < tieMargin) {
+            out.append(fixedFormat.get().format(value));
+            return;
+        }
+
+        long units = Math.round(scaled);
+        long whole = units / 10000;
+        int decimals = (int) (units % 10000);
+
+        if (whole != 0) {
+            appendLong(whole, out);
+        }
+
+        out.append('.');
+
+        for (int divisor = 1000; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (decimals / divisor) % 10));
+        }
+    }
+
+    private static void appendDouble(double value, Appendable out) throws IOException {
+
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+
+        } else {
+            out.append(Double.toString(value));
+        }
+    }
+
+    private static void appendInt(int value, Appendable out) throws IOException {
+        appendLong(value, out);
+    }
+
+    private static void appendLong(long value, Appendable out) throws IOException {
+
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+
+        } else {
+            out.append(Long.toString(value));
+        }
+    }
+
+    /* ---------------------------------- Sinks --------------------------------- */
+
+    /**
+     * Encodes appended characters as UTF-8 into a ByteBuffer. A character is
+     * only written once all of its bytes fit, and an unpaired surrogate is
+     * written as '?', as String.getBytes does.
+     */
+    private static class Utf8Sink implements Appendable {
+
+        private final ByteBuffer out;
+
+        // High surrogate waiting for its pair, or 0.
+        private char high;
+
+        Utf8Sink(ByteBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+
+            if (this.high != 0) {
+
+                char high = this.high;
+                this.high = 0;
+
+                if (Character.isLowSurrogate(c)) {
+                    writeCodePoint(Character.toCodePoint(high, c));
+                    return this;
+                }
+
+                writeCodePoint('?');
+            }
+
+            if (Character.isHighSurrogate(c)) {
+                this.high = c;
+
+            } else {
+                writeCodePoint(Character.isLowSurrogate(c) ? '?' : c);
+            }
+
+            return this;
+        }
+
+        private void writeCodePoint(int codePoint) {
+
+            if (codePoint < 0x80) {
+
+                if (!this.out.hasRemaining()) {
+                    throw new BufferOverflowException();
+                }
+
+                this.out.put((byte) codePoint);
+
+            } else if (codePoint < 0x800) {
+
+                checkRemaining(2);
+                this.out.put((byte) (0xC0 | codePoint >> 6));
+                this.out.put((byte) (0x80 | codePoint & 0x3F));
+
+            } else if (codePoint < 0x10000) {
+
+                checkRemaining(3);
+                this.out.put((byte) (0xE0 | codePoint >> 12));
+                this.out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                this.out.put((byte) (0x80 | codePoint & 0x3F));
+
+            } else {
+
+                checkRemaining(4);
+                this.out.put((byte) (0xF0 | codePoint >> 18));
+                this.out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                this.out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                this.out.put((byte) (0x80 | codePoint & 0x3F));
+            }
+        }
+
+        private void checkRemaining(int bytes) {
+
+            if (this.out.remaining() < bytes) {
+                throw new BufferOverflowException();
+            }
+        }
+    }
+}
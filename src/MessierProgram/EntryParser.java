@@ -0,0 +1,293 @@
+package src.MessierProgram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Character level parsing for catalogue entries, used in place of regex and
+ * split so loading a row doesn't compile patterns or build substrings for its
+ * numeric fields.
+ *
+ * Each check here accepts only well formed input. Anything it turns down is
+ * handed to MessierObject's regex based setters, which decide whether it's
+ * really invalid and word the InvalidEntryException, so error messages are
+ * unchanged.
+ */
+public class EntryParser {
+
+    // Whole numbers of up to 15 digits and the powers of ten below are all exact
+    // as doubles, so one division gives the correctly rounded value, the same
+    // as Double.parseDouble.
+    private static final int maxDigits = 15;
+    private static final double[] powersOfTen = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15 };
+
+    /**
+     * Find the fields of a table entry, leaving any delimeters wrapped by double
+     * quotation marks. Fields are separated by a comma and one more character
+     * (normally a space), as in the dataset.
+     *
+     * @param entry      The table entry line
+     * @param fieldCount The number of fields expected
+     * @return The start and end of each field, as [start0, end0, start1, ...]
+     * @throws InvalidEntryException Thrown if the entry has the wrong number of
+     *                               fields
+     */
+    public static int[] splitFields(String entry, int fieldCount) throws InvalidEntryException {
+
+        int[] bounds = new int[fieldCount * 2];
+        int count = 0;
+        int start = 0;
+        boolean inQuotes = false;
+
+        for (int position = 0; position < entry.length(); position++) {
+
+            char character = entry.charAt(position);
+
+            if (character == '\"') {
+                inQuotes = !inQuotes;
+
+            } else if (character == ',' && !inQuotes) {
+
+                // Keep counting past the end so the error gives the real count.
+                if (count < fieldCount) {
+                    bounds[count * 2] = Math.min(start, position);
+                    bounds[count * 2 + 1] = position;
+                }
+
+                count++;
+                start = position + 2;
+            }
+        }
+
+        if (count < fieldCount) {
+            bounds[count * 2] = Math.min(start, entry.length());
+            bounds[count * 2 + 1] = entry.length();
+        }
+
+        count++;
+
+        if (count != fieldCount) {
+            throw new InvalidEntryException("Invalid number of fields. Expected " + fieldCount + ", got: " + count);
+        }
+
+        return bounds;
+    }
+
+    /* ------------------------------- Validation ------------------------------- */
+
+    /**
+     * @return Whether the string is "M" followed by digits
+     */
+    public static boolean isMessierNumber(String field) {
+        return field.length() > 1 && field.charAt(0) == 'M' && isDigits(field, 1, field.length());
+    }
+
+    /**
+     * @return Whether the string is "NGC 1234" or "IC 1234" in quotes, or "-" in
+     *         quotes
+     */
+    public static boolean isNgcicNumber(String field) {
+        return (field.startsWith("\"NGC ") && field.length() > 5 && isDigit(field.charAt(5)))
+                || (field.startsWith("\"IC ") && field.length() > 4 && isDigit(field.charAt(4)))
+                || field.endsWith("-\"");
+    }
+
+    /**
+     * @return Whether the string is wrapped in quotes with at least one character
+     *         between, none of them line breaks
+     */
+    public static boolean isQuoted(String field) {
+
+        int length = field.length();
+
+        if (length < 3 || field.charAt(0) != '\"' || field.charAt(length - 1) != '\"') {
+            return false;
+        }
+
+        for (int i = 1; i < length - 1; i++) {
+
+            char character = field.charAt(i);
+
+            if (character == '\n' || character == '\r' || character == '\u0085' || character == '\u2028'
+                    || character == '\u2029') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Split a quoted list of common names, giving the same names as splitting on
+     * the regex ( or )|(, or )|, and trimming each, with the quotes dropped.
+     *
+     * @param field The quoted names, as "{name1}, {name2}, or {name3}"
+     * @return The names
+     */
+    public static List<String> splitNames(String field) {
+
+        // Trimming removes the quotes once they're control characters.
+        String text = field.replace('\"', '\u0000');
+        List<String> names = new ArrayList<String>();
+        int start = 0;
+        int position = 0;
+
+        while (position < text.length()) {
+
+            int separator = 0;
+
+            if (text.startsWith(" or ", position)) {
+                separator = 4;
+
+            } else if (text.startsWith(", or ", position)) {
+                separator = 5;
+
+            } else if (text.charAt(position) == ',') {
+                separator = 1;
+            }
+
+            if (separator == 0) {
+                position++;
+
+            } else {
+                names.add(text.substring(start, position));
+                position += separator;
+                start = position;
+            }
+        }
+
+        names.add(text.substring(start));
+
+        // As with split, trailing empty names are dropped before trimming.
+        while (!names.isEmpty() && names.get(names.size() - 1).isEmpty()) {
+            names.remove(names.size() - 1);
+        }
+
+        String[] trimmed = new String[names.size()];
+
+        for (int i = 0; i < trimmed.length; i++) {
+            trimmed[i] = names.get(i).trim();
+        }
+
+        return Arrays.asList(trimmed);
+    }
+
+    /* --------------------------------- Numbers -------------------------------- */
+
+    /**
+     * Convert "digits" or "digits.digits" to a double, without a substring.
+     *
+     * @param text  The text holding the number
+     * @param start The start of the number
+     * @param end   The end of the number
+     * @return The value, or NaN if the text isn't in that form or has too many
+     *         digits to convert exactly
+     */
+    public static double parseDecimal(CharSequence text, int start, int end) {
+        return parseDecimal(text, start, end, false);
+    }
+
+    /**
+     * Convert "digits.digits" to a double, without a substring.
+     *
+     * @param text  The text holding the number
+     * @param start The start of the number
+     * @param end   The end of the number
+     * @return The value, or NaN if the text isn't in that form or has too many
+     *         digits to convert exactly
+     */
+    public static double parsePointed(CharSequence text, int start, int end) {
+        return parseDecimal(text, start, end, true);
+    }
+
+    private static double parseDecimal(CharSequence text, int start, int end, boolean requirePoint) {
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        boolean seenPoint = false;
+
+        for (int i = start; i < end; i++) {
+
+            char character = text.charAt(i);
+
+            if (isDigit(character)) {
+
+                mantissa = mantissa * 10 + (character - '0');
+                digits++;
+
+                if (seenPoint) {
+                    decimals++;
+                }
+
+            } else if (character == '.' && !seenPoint && i > start && i < end - 1) {
+                seenPoint = true;
+
+            } else {
+                return Double.NaN;
+            }
+        }
+
+        if (digits == 0 || digits > maxDigits || (requirePoint && !seenPoint)) {
+            return Double.NaN;
+        }
+
+        return mantissa / powersOfTen[decimals];
+    }
+
+    /**
+     * Convert a number field the way Double.parseDouble would, taking the fast
+     * path when it can.
+     *
+     * @param text  The text holding the number
+     * @param start The start of the number
+     * @param end   The end of the number
+     * @return The value
+     * @throws NumberFormatException Thrown if it isn't a number
+     */
+    public static double parseDouble(String text, int start, int end) throws NumberFormatException {
+
+        double value = parseDecimal(text, start, end);
+
+        return Double.isNaN(value) ? Double.parseDouble(text.substring(start, end)) : value;
+    }
+
+    /**
+     * Convert "digits.digitsdigitsdigitsdigits" followed by a single unit
+     * character, as used for seconds and arc seconds.
+     *
+     * @return The value, or NaN if the text isn't in that form
+     */
+    static double parseSeconds(CharSequence text, int start, int end, char unit) {
+
+        if (end - start < 7 || text.charAt(end - 1) != unit || text.charAt(end - 6) != '.') {
+            return Double.NaN;
+        }
+
+        return parsePointed(text, start, end - 1);
+    }
+
+    /**
+     * Find the end of a run of digits.
+     *
+     * @return The index of the first character that isn't a digit
+     */
+    static int skipDigits(CharSequence text, int start, int end) {
+
+        while (start < end && isDigit(text.charAt(start))) {
+            start++;
+        }
+
+        return start;
+    }
+
+    static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isDigits(CharSequence text, int start, int end) {
+        return start < end && skipDigits(text, start, end) == end;
+    }
+}
@@ -0,0 +1,271 @@
+package src.MessierProgram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads Messier Objects from a catalogue file one entry at a time.
+ *
+ * The file is memory mapped a window at a time and line breaks are found
+ * directly in the mapped bytes, so only the entry being parsed is ever copied
+ * onto the heap. Memory use stays the same however large the file is.
+ *
+ * Lines end at "\n", "\r" or "\r\n", as with BufferedReader.readLine.
+ */
+public class EntryReader implements Iterator<MessierObject>, Closeable {
+
+    // How much of the file is mapped at once. A line longer than this gets a
+    // bigger window.
+    private static final int windowSize = 1 << 26;
+
+    private final FileChannel channel;
+    private final long end;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+
+    private int lineNumber;
+    private MessierObject next;
+
+    /**
+     * Open a catalogue file for reading.
+     *
+     * @param path The path to the file
+     * @throws IOException Thrown if the file can't be opened
+     */
+    public EntryReader(Path path) throws IOException {
+        this(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Open part of a catalogue file for reading. The range should start and end
+     * at the beginning of a line, as found by nextLineStart. Line numbers count
+     * from the start of the range.
+     *
+     * @param path  The path to the file
+     * @param start The byte offset to start at
+     * @param end   The byte offset to stop at
+     * @throws IOException Thrown if the file can't be opened
+     */
+    public EntryReader(Path path, long start, long end) throws IOException {
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            this.end = Math.min(end, this.channel.size());
+            map(Math.min(start, this.end), windowSize);
+
+        } catch (IOException exception) {
+            this.channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Read the next line of the file.
+     *
+     * @return The line, without its line break, or null at the end of the file
+     * @throws IOException Thrown if the file can't be read or isn't valid UTF-8
+     */
+    public String readLine() throws IOException {
+
+        if (this.windowStart + this.position >= this.end) {
+            return null;
+        }
+
+        int end = this.position;
+
+        while (true) {
+
+            while (end < this.window.limit() && !isLineBreak(this.window.get(end))) {
+                end++;
+            }
+
+            if (end < this.window.limit() || this.windowStart + end >= this.end) {
+                break;
+            }
+
+            // The line runs past the window, so map again from its start, with a
+            // bigger window if the line alone fills this one.
+            int scanned = end - this.position;
+            long length = this.position == 0 ? Math.min(2L * this.window.limit(), Integer.MAX_VALUE) : windowSize;
+
+            map(this.windowStart + this.position, length);
+            end = scanned;
+        }
+
+        String line = decode(this.position, end);
+
+        this.position = end;
+        this.lineNumber++;
+
+        if (this.position < this.window.limit()) {
+            skipLineBreak();
+        }
+
+        return line;
+    }
+
+    /**
+     * Get the number of lines read so far, which is the line number of the last
+     * line returned.
+     *
+     * @return The line number
+     */
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Check for another entry, parsing it ahead of time.
+     *
+     * @throws UncheckedIOException           Thrown if the file can't be read
+     * @throws UncheckedInvalidEntryException Thrown if the entry is invalid
+     */
+    @Override
+    public boolean hasNext() {
+
+        if (this.next != null) {
+            return true;
+        }
+
+        try {
+            String line = readLine();
+
+            if (line == null) {
+                return false;
+            }
+
+            this.next = new MessierObject(line);
+            return true;
+
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+
+        } catch (InvalidEntryException exception) {
+            throw new UncheckedInvalidEntryException(new InvalidEntryException(exception, this.lineNumber));
+        }
+    }
+
+    /**
+     * Get the next entry.
+     *
+     * @return The Messier Object
+     * @throws UncheckedIOException           Thrown if the file can't be read
+     * @throws UncheckedInvalidEntryException Thrown if the entry is invalid
+     */
+    @Override
+    public MessierObject next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more entries in the file.");
+        }
+
+        MessierObject object = this.next;
+        this.next = null;
+
+        return object;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    /**
+     * Find where the first line starting at or after an offset begins.
+     *
+     * @param channel The file
+     * @param offset  The byte offset
+     * @return The offset of the line, or the size of the file if there is none
+     * @throws IOException Thrown if the file can't be read
+     */
+    public static long nextLineStart(FileChannel channel, long offset) throws IOException {
+
+        if (offset <= 0) {
+            return 0;
+        }
+
+        // Starting a byte early catches a line that begins exactly at the offset.
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = offset - 1;
+        boolean afterReturn = false;
+
+        while (channel.read(buffer.clear(), position) > 0) {
+
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+
+                byte character = buffer.get();
+
+                if (afterReturn) {
+                    return character == '\n' ? position + 1 : position;
+                }
+                if (character == '\n') {
+                    return position + 1;
+                }
+
+                afterReturn = character == '\r';
+                position++;
+            }
+        }
+
+        return channel.size();
+    }
+
+    /* --------------------------------- Mapping -------------------------------- */
+
+    private void map(long start, long length) throws IOException {
+
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, this.end - start));
+        this.windowStart = start;
+        this.position = 0;
+    }
+
+    private void skipLineBreak() throws IOException {
+
+        byte lineBreak = this.window.get(this.position++);
+
+        if (lineBreak != '\r') {
+            return;
+        }
+
+        // A "\r\n" may be split across two windows.
+        if (this.position == this.window.limit() && this.windowStart + this.position < this.end) {
+            map(this.windowStart + this.position, windowSize);
+        }
+
+        if (this.position < this.window.limit() && this.window.get(this.position) == '\n') {
+            this.position++;
+        }
+    }
+
+    private String decode(int start, int end) throws IOException {
+
+        ByteBuffer bytes = this.window.duplicate();
+
+        bytes.limit(end).position(start);
+
+        return this.decoder.decode(bytes).toString();
+    }
+
+    private static boolean isLineBreak(byte character) {
+        return character == '\n' || character == '\r';
+    }
+}
@@ -0,0 +1,101 @@
+package src.MessierProgram;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each distinct string of a text field a small integer id, shared by
+ * every Messier Object.
+ *
+ * A catalogue only holds a handful of distinct types and constellations, so
+ * objects store the id instead of their own copy of the string, and filters
+ * compare ids. Ids are never reused or removed. Safe to add to from several
+ * threads, as the parallel loader does.
+ */
+public class FieldDictionary {
+
+    public static final FieldDictionary types = new FieldDictionary();
+    public static final FieldDictionary constellations = new FieldDictionary();
+
+    // The id used for a null string, and the id idOf gives a string that was
+    // never added, which no object holds.
+    public static final int noId = -1;
+    public static final int absentId = -2;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+    // Only grown under the lock. A reader gets an id from the map, or from an
+    // object published after it, before reading its slot, so it always sees the
+    // value.
+    private volatile String[] values = new String[16];
+    private int size;
+
+    /**
+     * Get the id of a string, assigning the next id if it's new.
+     *
+     * @param value The string
+     * @return The id, or noId for null
+     */
+    public int add(String value) {
+
+        if (value == null) {
+            return noId;
+        }
+
+        Integer id = this.ids.get(value);
+
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+
+            id = this.ids.get(value);
+
+            if (id == null) {
+
+                if (this.size == this.values.length) {
+                    this.values = Arrays.copyOf(this.values, this.size * 2);
+                }
+
+                id = this.size;
+                this.values[this.size++] = value;
+                this.ids.put(value, id);
+            }
+        }
+
+        return id;
+    }
+
+    /**
+     * Get the id of a string without assigning one.
+     *
+     * @param value The string
+     * @return The id, noId for null, or absentId if the string has never been
+     *         added
+     */
+    public int idOf(String value) {
+
+        if (value == null) {
+            return noId;
+        }
+
+        Integer id = this.ids.get(value);
+
+        return id != null ? id : absentId;
+    }
+
+    /**
+     * Get the string for an id.
+     *
+     * @param id The id
+     * @return The shared instance of the string, or null for noId
+     */
+    public String get(int id) {
+        return id != noId ? this.values[id] : null;
+    }
+
+    public int size() {
+        return this.ids.size();
+    }
+}
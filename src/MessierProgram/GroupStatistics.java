@@ -0,0 +1,175 @@
+package src.MessierProgram;
+
+import java.util.List;
+
+/**
+ * Running statistics over a group of Messier Objects, such as all those of one
+ * type: the count, and the sum, mean, lowest and highest of every attribute.
+ *
+ * Adding an object updates them in O(1). Removing one does too, unless it was
+ * the lowest or highest of an attribute, in which case the group is marked
+ * stale for its catalogue to rebuild on next read. Sums are kept by adding and
+ * subtracting, so after removals a mean can differ from a fresh sum in the
+ * last few digits.
+ *
+ * As with a sort, the first object added wins a tie for lowest or highest.
+ * Only the catalogue that owns the statistics changes them, so callers can
+ * read them but not alter them.
+ */
+public class GroupStatistics {
+
+    private static final Attribute[] attributes = Attribute.values();
+
+    private int count;
+    private final double[] sums = new double[attributes.length];
+    private final MessierObject[] lowest = new MessierObject[attributes.length];
+    private final MessierObject[] highest = new MessierObject[attributes.length];
+    private boolean stale;
+
+    /**
+     * Constructor for an empty group.
+     */
+    public GroupStatistics() {
+    }
+
+    /**
+     * Build the statistics over the passed objects.
+     *
+     * @param objects The Messier Objects, in the order they were added
+     */
+    GroupStatistics(List<MessierObject> objects) {
+
+        for (MessierObject object : objects) {
+            add(object);
+        }
+    }
+
+    /**
+     * Add an object to the group.
+     *
+     * @param object The Messier Object
+     */
+    void add(MessierObject object) {
+
+        this.count++;
+
+        for (Attribute attribute : attributes) {
+
+            int i = attribute.ordinal();
+            double value = attribute.getValue(object);
+
+            this.sums[i] += value;
+
+            if (this.lowest[i] == null || value < attribute.getValue(this.lowest[i])) {
+                this.lowest[i] = object;
+            }
+
+            if (this.highest[i] == null || value > attribute.getValue(this.highest[i])) {
+                this.highest[i] = object;
+            }
+        }
+    }
+
+    /**
+     * Remove an object from the group.
+     *
+     * @param object The Messier Object
+     */
+    void remove(MessierObject object) {
+
+        this.count--;
+
+        for (Attribute attribute : attributes) {
+
+            int i = attribute.ordinal();
+
+            this.sums[i] -= attribute.getValue(object);
+
+            // Another object may hold the same value, or the next best, so only
+            // a scan of the group can find the new extreme.
+            if (this.lowest[i] == object || this.highest[i] == object) {
+                this.stale = true;
+            }
+        }
+    }
+
+    /**
+     * See if a removal took away a lowest or highest object, so the group needs
+     * rebuilding before it's read.
+     *
+     * @return Whether or not it is stale
+     */
+    public boolean isStale() {
+        return this.stale;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Get the sum of an attribute over the group.
+     *
+     * @param attribute The attribute
+     * @return The sum
+     */
+    public double getSum(Attribute attribute) {
+        return this.sums[attribute.ordinal()];
+    }
+
+    /**
+     * Get the mean of an attribute over the group.
+     *
+     * @param attribute The attribute
+     * @return The mean, or NaN if the group is empty
+     */
+    public double getMean(Attribute attribute) {
+        return this.sums[attribute.ordinal()] / this.count;
+    }
+
+    /**
+     * Get the lowest value of an attribute over the group.
+     *
+     * @param attribute The attribute
+     * @return The value, or NaN if the group is empty
+     */
+    public double getMin(Attribute attribute) {
+
+        MessierObject object = getLowest(attribute);
+
+        return object != null ? attribute.getValue(object) : Double.NaN;
+    }
+
+    /**
+     * Get the highest value of an attribute over the group.
+     *
+     * @param attribute The attribute
+     * @return The value, or NaN if the group is empty
+     */
+    public double getMax(Attribute attribute) {
+
+        MessierObject object = getHighest(attribute);
+
+        return object != null ? attribute.getValue(object) : Double.NaN;
+    }
+
+    /**
+     * Get the first object with the lowest value of an attribute.
+     *
+     * @param attribute The attribute
+     * @return The object, or null if the group is empty
+     */
+    public MessierObject getLowest(Attribute attribute) {
+        return this.lowest[attribute.ordinal()];
+    }
+
+    /**
+     * Get the first object with the highest value of an attribute.
+     *
+     * @param attribute The attribute
+     * @return The object, or null if the group is empty
+     */
+    public MessierObject getHighest(Attribute attribute) {
+        return this.highest[attribute.ordinal()];
+    }
+}
@@ -1,13 +1,25 @@
 package src.MessierProgram;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class IOHandler {
 
@@ -23,7 +35,8 @@ public class IOHandler {
     }
 
     /**
-     * Reads the file for data entries.
+     * Reads the file for data entries. This holds every line in memory at once,
+     * so prefer streamObjects for large files.
      * 
      * @return An array list of the entries
      * @throws IOException
@@ -50,6 +63,205 @@ public class IOHandler {
         }
     }
 
+    /**
+     * Opens the file for reading one entry at a time.
+     * 
+     * @return The reader, which must be closed
+     * @throws IOException
+     */
+    public EntryReader openEntries() throws IOException {
+        return new EntryReader(Paths.get(this.path));
+    }
+
+    /**
+     * Streams the Messier Objects in the file, parsing each entry as it's read.
+     * Invalid entries throw an UncheckedInvalidEntryException, and read errors
+     * an UncheckedIOException, when the stream reaches them.
+     * 
+     * @return The stream, which must be closed
+     * @throws IOException
+     */
+    public Stream<MessierObject> streamObjects() throws IOException {
+
+        EntryReader reader = openEntries();
+
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+    }
+
+    /**
+     * Creates a loader for reading the whole file into a catalogue.
+     * 
+     * @return The loader
+     */
+    public CatalogueLoader loader() {
+        return new CatalogueLoader(Paths.get(this.path));
+    }
+
+    /**
+     * Loads the file through a binary snapshot kept alongside it. If the
+     * snapshot is missing, out of date or damaged, the text file is loaded in
+     * parallel instead and a new snapshot written for next time.
+     * 
+     * @param snapshot The path of the snapshot
+     * @return The catalogue
+     * @throws IOException
+     * @throws InvalidEntryException Thrown if the text file has to be loaded and
+     *                               contains an invalid entry
+     */
+    public MessierCatalogue loadWithSnapshot(Path snapshot) throws IOException, InvalidEntryException {
+        return loadWithSnapshot(snapshot, 0).getCatalogue();
+    }
+
+    /**
+     * Loads the file through a binary snapshot as above, but skips up to the
+     * passed number of invalid entries if the text file has to be loaded. No
+     * snapshot is written when any were skipped, so they're reported again on
+     * every load until the file is fixed.
+     * 
+     * @param snapshot  The path of the snapshot
+     * @param maxErrors The most invalid entries to skip
+     * @return The report, holding the catalogue
+     * @throws IOException
+     * @throws InvalidEntryException Thrown if the text file has to be loaded and
+     *                               contains more invalid entries than allowed
+     */
+    public LoadReport loadWithSnapshot(Path snapshot, int maxErrors) throws IOException, InvalidEntryException {
+
+        Path source = Paths.get(this.path);
+
+        if (CatalogueSnapshot.isFresh(snapshot, source)) {
+
+            try {
+                long startTime = System.nanoTime();
+                MessierCatalogue catalogue = CatalogueSnapshot.read(snapshot);
+
+                return new LoadReport(catalogue, new ArrayList<InvalidEntryException>(), catalogue.size(),
+                        Files.size(snapshot), System.nanoTime() - startTime);
+
+            } catch (IOException exception) {
+                // Damaged, so fall through and rebuild it from the text.
+            }
+        }
+
+        LoadReport report = loader().parallel().maxErrors(maxErrors).loadWithReport();
+
+        if (report.getErrors().isEmpty()) {
+
+            try {
+                CatalogueSnapshot.write(report.getCatalogue(), snapshot, source);
+
+            } catch (IOException exception) {
+                // The snapshot only speeds up the next start, so failing to write
+                // one isn't fatal.
+            }
+        }
+
+        return report;
+    }
+
+    /* --------------------------------- Writing -------------------------------- */
+
+    /**
+     * Rewrites the file with a whole catalogue. The catalogue is written to a
+     * temporary file next to it and moved into place, so the file is never left
+     * half written. The change log is emptied, as the file now includes it.
+     *
+     * @param catalogue The catalogue
+     * @throws IOException
+     */
+    public void writeCatalogue(MessierCatalogue catalogue) throws IOException {
+
+        Path source = Paths.get(this.path);
+        Path temporary = source.resolveSibling(source.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1));
+
+            catalogue.writeTo(writer);
+            writer.write('\n');
+            writer.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, source, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        getChangeLog().reset();
+    }
+
+    /**
+     * Records an added object in the change log, without rewriting the file.
+     *
+     * @param messierObject The object
+     * @throws IOException
+     */
+    public void logAdd(MessierObject messierObject) throws IOException {
+        getChangeLog().appendAdd(messierObject);
+    }
+
+    /**
+     * Records a removed object in the change log, without rewriting the file.
+     *
+     * @param messierNumber The Messier number of the object
+     * @throws IOException
+     */
+    public void logRemove(String messierNumber) throws IOException {
+        getChangeLog().appendRemove(messierNumber);
+    }
+
+    /**
+     * Loads the file with the change log applied on top.
+     *
+     * @return The catalogue
+     * @throws IOException
+     * @throws InvalidEntryException Thrown if the file or the log contains an
+     *                               invalid entry
+     */
+    public MessierCatalogue loadWithChanges() throws IOException, InvalidEntryException {
+
+        MessierCatalogue catalogue = loader().parallel().load();
+        ChangeLog changeLog = getChangeLog();
+
+        if (!changeLog.hasChanges()) {
+            return catalogue;
+        }
+
+        return new MessierCatalogue(changeLog.replay(catalogue.getList()).toArray(new MessierObject[0]));
+    }
+
+    /**
+     * Folds the change log into the file, rewriting it once and emptying the
+     * log.
+     *
+     * @throws IOException
+     * @throws InvalidEntryException Thrown if the file or the log contains an
+     *                               invalid entry
+     */
+    public void compact() throws IOException, InvalidEntryException {
+
+        if (getChangeLog().hasChanges()) {
+            writeCatalogue(loadWithChanges());
+        }
+    }
+
+    /**
+     * Gets the change log kept alongside the file.
+     *
+     * @return The change log
+     */
+    public ChangeLog getChangeLog() {
+        return new ChangeLog(Paths.get(this.path + ".changes"), Paths.get(this.path));
+    }
+
     public String getPath() {
         return this.path;
     }
@@ -4,7 +4,30 @@ package src.MessierProgram;
  * Thrown when an argument is in an invalid format.
  */
 public class InvalidEntryException extends Exception {
+
+    private final int lineNumber;
+
     public InvalidEntryException(String message) {
         super(message);
+        this.lineNumber = -1;
+    }
+
+    /**
+     * Constructor adding the line of the file an invalid entry was read from.
+     *
+     * @param cause      The exception thrown for the entry
+     * @param lineNumber The line number, starting at 1
+     */
+    public InvalidEntryException(InvalidEntryException cause, int lineNumber) {
+        super("Line " + lineNumber + ": " + cause.getMessage(), cause);
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * @return The line number of the invalid entry, or -1 if it wasn't read from
+     *         a file
+     */
+    public int getLineNumber() {
+        return this.lineNumber;
     }
 }
@@ -0,0 +1,83 @@
+package src.MessierProgram;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of loading a catalogue file: the catalogue itself, the entries
+ * that were skipped as invalid, and how quickly the file was read.
+ */
+public class LoadReport {
+
+    private final MessierCatalogue catalogue;
+    private final List<InvalidEntryException> errors;
+    private final int lineCount;
+    private final long byteCount;
+    private final long elapsedNanos;
+
+    /**
+     * Constructor with all value fields. Use CatalogueLoader.loadWithReport to
+     * create one.
+     *
+     * @param catalogue    The loaded catalogue
+     * @param errors       The skipped entries, in file order
+     * @param lineCount    The number of lines read
+     * @param byteCount    The number of bytes read
+     * @param elapsedNanos The time taken
+     */
+    LoadReport(MessierCatalogue catalogue, List<InvalidEntryException> errors, int lineCount, long byteCount,
+            long elapsedNanos) {
+
+        this.catalogue = catalogue;
+        this.errors = Collections.unmodifiableList(errors);
+        this.lineCount = lineCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public MessierCatalogue getCatalogue() {
+        return this.catalogue;
+    }
+
+    /**
+     * Get the entries that were skipped. Each exception gives the line number
+     * and the reason.
+     *
+     * @return The exceptions, in file order
+     */
+    public List<InvalidEntryException> getErrors() {
+        return this.errors;
+    }
+
+    public int getLineCount() {
+        return this.lineCount;
+    }
+
+    public long getByteCount() {
+        return this.byteCount;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    public double getLinesPerSecond() {
+        return this.lineCount / (this.elapsedNanos / 1e9);
+    }
+
+    public double getBytesPerSecond() {
+        return this.byteCount / (this.elapsedNanos / 1e9);
+    }
+
+    /**
+     * Create a one line summary of the load.
+     *
+     * @return The summary
+     */
+    public String toString() {
+
+        return String.format("Loaded %d of %d lines (%d skipped), %d bytes in %.1f ms: %.0f lines/s, %.1f MB/s",
+                this.catalogue.size(), this.lineCount, this.errors.size(), this.byteCount, this.elapsedNanos / 1e6,
+                getLinesPerSecond(), getBytesPerSecond() / 1e6);
+    }
+}
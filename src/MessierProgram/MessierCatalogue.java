@@ -1,21 +1,89 @@
 package src.MessierProgram;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class MessierCatalogue {
 
     private List<MessierObject> messierObjects;
 
+    // What getList hands out, reading through to whatever list is current.
+    private final List<MessierObject> listView = new ListView();
+
+    // Set for the read-only views returned by the filters.
+    private final boolean view;
+
+    // Set once every index is built and the catalogue can no longer change, so
+    // it can be read from many threads.
+    private boolean frozen;
+
+    // Built lazily by the proximity queries and dropped whenever the list
+    // changes.
+    private SpatialIndex spatialIndex;
+    private PairFinder pairFinder;
+
+    // Built lazily by the lookups, then kept in step with adds. They hold list
+    // positions, so a removal leaves them alone and they skip the gap instead.
+    private Map<String, PositionList> numberIndex;
+    private Map<String, PositionList> typeIndex;
+    private Map<String, PositionList> constellationIndex;
+    private final Map<Attribute, RangeIndex> rangeIndexes = new EnumMap<Attribute, RangeIndex>(Attribute.class);
+    private NameIndex nameIndex;
+
+    // Count, sums and extremes of each type and constellation, built lazily by
+    // the statistics getters and kept in step like the indexes above.
+    private Map<String, GroupStatistics> typeStatistics;
+    private Map<String, GroupStatistics> constellationStatistics;
+
+    // List positions of each object, as one can be added more than once. Kept
+    // in step with adds and skips gaps, like the lookups above.
+    private Map<MessierObject, PositionList> positionIndex;
+
+    // Removals leave a null gap in the list rather than shifting everything
+    // after it, so they cost O(1). Reads skip the gaps, and they're packed away
+    // once they make up half of the list.
+    private int gaps;
+
+    // Finds an object by index past the gaps. Built by get when there are gaps,
+    // and dropped once they're packed.
+    private Ranks ranks;
+
+    // Open batches. The outermost one drops the indexes that group or order
+    // objects when it begins, and its commit rebuilds the ones that existed,
+    // in one pass each.
+    private int batchDepth;
+    private final List<Runnable> batchRebuilds = new ArrayList<Runnable>();
+
+    // Outside a batch, a bulk change touching at least 1/bulkRatio of the
+    // catalogue drops the indexes, as rebuilding them beats updating them one
+    // object at a time.
+    private static final int bulkRatio = 8;
+
     /**
      * Constructor for an empty set of Messier Objects.
      */
     public MessierCatalogue() {
 
         this.messierObjects = new ArrayList<MessierObject>();
+        this.view = false;
     }
 
     /**
@@ -26,6 +94,17 @@ public class MessierCatalogue {
     public MessierCatalogue(MessierObject[] messierObjects) {
 
         this.messierObjects = new ArrayList<>(Arrays.asList(messierObjects));
+        this.view = false;
+    }
+
+    /**
+     * Constructor for a read-only view over part of another catalogue.
+     * 
+     * @param objects The objects visible through the view, which the view owns
+     */
+    private MessierCatalogue(List<MessierObject> objects) {
+        this.messierObjects = Collections.unmodifiableList(objects);
+        this.view = true;
     }
 
     /* ---------------------------- Mutating the set ---------------------------- */
@@ -36,29 +115,35 @@ public class MessierCatalogue {
      * @param messierObject The Messier Object
      */
     public void add(MessierObject messierObject) {
+        checkWritable();
         this.messierObjects.add(messierObject);
+        indexAdded(this.messierObjects.size() - 1);
     }
 
     /**
-     * Remove the first Messier Object from the set by Messier number.
+     * Remove the first Messier Object from the set by Messier number. Found
+     * through the number index, so it costs O(1) once that's built.
      * 
      * @param messierNumber The Messier number of the object you want to remove
      * @throws NoSuchElementException Thrown is the object is not found
      */
     public void removeByNumber(String messierNumber) throws NoSuchElementException {
 
-        for (MessierObject object : this.messierObjects) {
+        checkWritable();
 
-            if (object.getMessierNumber().equals(messierNumber)) {
-                this.messierObjects.remove(object);
-            }
+        PositionList positions = getNumberIndex().get(messierNumber);
+        int position = positions != null ? positions.firstPosition(this.messierObjects) : -1;
+
+        if (position == -1) {
+            throw new NoSuchElementException("Messier number: " + messierNumber + " does not exist.");
         }
 
-        throw new NoSuchElementException();
+        removeAt(position);
     }
 
     /**
-     * Remove the first Messier Object from the set by object reference.
+     * Remove the first Messier Object from the set by object reference. Found
+     * through the position index, so it costs O(1) once it's built.
      * 
      * @param messierObject The reference to the Messier Object that you want to
      *                      remove
@@ -66,28 +151,292 @@ public class MessierCatalogue {
      */
     public void removeByReference(MessierObject messierObject) throws NoSuchElementException {
 
-        for (MessierObject object : this.messierObjects) {
+        checkWritable();
+
+        PositionList positions = getPositionIndex().get(messierObject);
+        int position = positions != null ? positions.firstPosition(this.messierObjects) : -1;
+
+        if (position == -1) {
+            throw new NoSuchElementException("Messier Object: " + messierObject.getMessierNumber() + " not found.");
+        }
+
+        removeAt(position);
+    }
+
+    /**
+     * Remove the object at a list position, leaving a gap.
+     */
+    private void removeAt(int position) {
+        leaveGap(position);
+        packIfSparse();
+    }
+
+    /**
+     * Swap the object at a list position for a gap. The indexes skip gaps, so
+     * only the statistics need updating.
+     */
+    private void leaveGap(int position) {
+
+        MessierObject object = this.messierObjects.set(position, null);
+
+        this.gaps++;
+        indexRemoved(object);
 
-            if (object == messierObject) {
-                this.messierObjects.remove(object);
+        if (this.ranks != null) {
+            this.ranks.update(position, -1);
+        }
+    }
+
+    /**
+     * Pack the gaps away once they make up half of the list, so that the cost is
+     * spread over the removals that left them.
+     */
+    private void packIfSparse() {
+
+        if (this.gaps * 2 > this.messierObjects.size()) {
+            pack();
+        }
+    }
+
+    /**
+     * Close up the gaps left by removals, and move the positions held by the
+     * indexes along with the objects.
+     */
+    private void pack() {
+
+        if (this.gaps == 0) {
+            return;
+        }
+
+        int[] moved = new int[this.messierObjects.size()];
+        int next = 0;
+
+        for (int i = 0; i < moved.length; i++) {
+            moved[i] = this.messierObjects.get(i) != null ? next++ : -1;
+        }
+
+        this.messierObjects.removeIf(object -> object == null);
+        this.gaps = 0;
+        this.ranks = null;
+
+        remapIndex(this.numberIndex, moved);
+        remapIndex(this.typeIndex, moved);
+        remapIndex(this.constellationIndex, moved);
+
+        for (RangeIndex index : this.rangeIndexes.values()) {
+            index.remap(moved);
+        }
+
+        if (this.nameIndex != null) {
+            this.nameIndex.remap(moved);
+        }
+
+        remapIndex(this.positionIndex, moved);
+    }
+
+    /**
+     * Add several objects to the end of the set, in order. Outside a batch,
+     * adding many at once drops the indexes instead of updating them for every
+     * object.
+     * 
+     * @param messierObjects The Messier Objects
+     */
+    public void addAll(Collection<MessierObject> messierObjects) {
+
+        checkWritable();
+
+        if (!isBulk(messierObjects.size())) {
+
+            for (MessierObject messierObject : messierObjects) {
+                add(messierObject);
             }
+
+            return;
         }
 
-        throw new NoSuchElementException();
+        this.messierObjects.addAll(messierObjects);
+        invalidateIndexes();
+    }
+
+    /**
+     * Remove several objects from the set by object reference, in one pass over
+     * the list. Each element removes one occurrence. Nothing is removed unless
+     * every object is found.
+     * 
+     * @param messierObjects The Messier Objects
+     * @throws NoSuchElementException Thrown if any object is not found
+     */
+    public void removeAll(Collection<MessierObject> messierObjects) throws NoSuchElementException {
+
+        checkWritable();
+
+        Map<MessierObject, Integer> pending = new IdentityHashMap<MessierObject, Integer>();
+
+        for (MessierObject messierObject : messierObjects) {
+            pending.merge(messierObject, 1, Integer::sum);
+        }
+
+        int[] removed = new int[messierObjects.size()];
+        int count = 0;
+
+        for (int i = 0; i < this.messierObjects.size() && !pending.isEmpty(); i++) {
+
+            MessierObject object = this.messierObjects.get(i);
+            Integer left = object != null ? pending.get(object) : null;
+
+            if (left == null) {
+                continue;
+            }
+
+            removed[count++] = i;
+
+            if (left == 1) {
+                pending.remove(object);
+            } else {
+                pending.put(object, left - 1);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            throw new NoSuchElementException(
+                    "Messier Object: " + pending.keySet().iterator().next().getMessierNumber() + " not found.");
+        }
+
+        if (isBulk(count)) {
+
+            for (int i = 0; i < count; i++) {
+                this.messierObjects.set(removed[i], null);
+            }
+
+            this.gaps += count;
+            invalidateIndexes();
+            pack();
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            leaveGap(removed[i]);
+        }
+
+        packIfSparse();
+    }
+
+    /**
+     * Start a batch of changes. The type, constellation, range and name indexes
+     * and the statistics are dropped, so until the matching commit adds and
+     * removes only keep the number and position indexes up to date, which
+     * removal needs. Batches can be nested.
+     */
+    public void beginBatch() {
+
+        checkWritable();
+
+        if (this.batchDepth++ == 0) {
+            recordBatchRebuilds();
+            dropGroupIndexes();
+        }
+    }
+
+    /**
+     * End the batch started by the last beginBatch. Ending the outermost batch
+     * rebuilds the indexes that existed when it began.
+     * 
+     * @throws IllegalStateException Thrown if no batch is open
+     */
+    public void commit() throws IllegalStateException {
+
+        if (this.batchDepth == 0) {
+            throw new IllegalStateException("No batch to commit.");
+        }
+
+        if (--this.batchDepth == 0) {
+
+            for (Runnable rebuild : this.batchRebuilds) {
+                rebuild.run();
+            }
+
+            this.batchRebuilds.clear();
+        }
+    }
+
+    private void recordBatchRebuilds() {
+
+        if (this.typeIndex != null) {
+            this.batchRebuilds.add(this::getTypeIndex);
+        }
+        if (this.constellationIndex != null) {
+            this.batchRebuilds.add(this::getConstellationIndex);
+        }
+        if (this.nameIndex != null) {
+            this.batchRebuilds.add(this::getNameIndex);
+        }
+        if (this.typeStatistics != null) {
+            this.batchRebuilds.add(this::getTypeStatisticsIndex);
+        }
+        if (this.constellationStatistics != null) {
+            this.batchRebuilds.add(this::getConstellationStatisticsIndex);
+        }
+
+        for (Attribute attribute : this.rangeIndexes.keySet()) {
+            this.batchRebuilds.add(() -> getRangeIndex(attribute));
+        }
+    }
+
+    private boolean isBulk(int changes) {
+
+        // Inside a batch the number and position indexes must be kept for the
+        // removals to come, so changes go one at a time.
+        return this.batchDepth == 0 && (long) changes * bulkRatio >= size();
     }
 
     /**
      * Empty the list of MessierObjects.
      */
     public void removeAll() {
+        checkWritable();
         this.messierObjects = new ArrayList<MessierObject>();
+        this.gaps = 0;
+        invalidateIndexes();
     }
 
     /**
      * Sort the Messier Object list based on it's comparator (apparent magnitude).
+     * To read the objects in order without reordering the list, use getSorted.
      */
     public void sort() {
+        checkWritable();
+        pack();
         Collections.sort(this.messierObjects);
+        invalidateIndexes();
+    }
+
+    /**
+     * See if this catalogue is a read-only view returned by one of the filters.
+     * 
+     * @return Whether or not it is a view
+     */
+    public boolean isView() {
+        return this.view;
+    }
+
+    /**
+     * See if this catalogue has been frozen as a snapshot, e.g. by
+     * ConcurrentCatalogue.
+     * 
+     * @return Whether or not it is frozen
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    private void checkWritable() {
+
+        if (isView()) {
+            throw new UnsupportedOperationException("Cannot modify a read-only view of a catalogue.");
+        }
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Cannot modify a frozen snapshot of a catalogue.");
+        }
     }
 
     /* ---------------------------- Catalogue Queries --------------------------- */
@@ -99,19 +448,59 @@ public class MessierCatalogue {
      */
     public String toString() {
 
-        String catalogue = "";
+        StringBuilder catalogue = new StringBuilder(128 * size());
 
-        for (int i = 0; i < size(); i++) {
+        try {
+            writeTo(catalogue);
 
-            if (i != 0) {
-                catalogue += "\n" + this.messierObjects.get(i).toString();
+        } catch (IOException exception) {
+            // StringBuilder never throws.
+            throw new IllegalStateException(exception);
+        }
 
-            } else {
-                catalogue += this.messierObjects.get(i).toString();
+        return catalogue.toString();
+    }
+
+    /**
+     * Write the Messier Objects in the database format, one per line, as
+     * toString gives. Each object is written straight into the Appendable, so a
+     * Writer can be used to stream a large catalogue out.
+     * 
+     * @param out Where to write the catalogue
+     * @throws IOException Thrown if the Appendable can't be written to
+     */
+    public void writeTo(Appendable out) throws IOException {
+
+        boolean first = true;
+
+        for (MessierObject object : this.listView) {
+
+            if (!first) {
+                out.append('\n');
             }
+
+            EntryFormatter.appendEntry(object, out);
+            first = false;
         }
+    }
+
+    /**
+     * Write the Messier Objects in the database format as UTF-8, one per line,
+     * as toString gives. Each object is encoded straight into the ByteBuffer,
+     * with no intermediate string.
+     * 
+     * @param out Where to write the catalogue
+     * @throws BufferOverflowException Thrown if the catalogue doesn't fit
+     */
+    public void writeTo(ByteBuffer out) throws BufferOverflowException {
+
+        try {
+            writeTo(EntryFormatter.utf8(out));
 
-        return catalogue;
+        } catch (IOException exception) {
+            // The sink never throws.
+            throw new IllegalStateException(exception);
+        }
     }
 
     /**
@@ -120,7 +509,7 @@ public class MessierCatalogue {
      * @return The size of the set
      */
     public int size() {
-        return this.messierObjects.size();
+        return this.messierObjects.size() - this.gaps;
     }
 
     /**
@@ -129,64 +518,239 @@ public class MessierCatalogue {
      * @return Whether or not it is empty
      */
     public boolean isEmpty() {
-        return this.messierObjects.isEmpty();
+        return size() == 0;
     }
 
-    public MessierObject getByMessierNumber(String messierNumber) {
+    /**
+     * Get the first Messier Object with the passed Messier number.
+     * 
+     * @param messierNumber The Messier number
+     * @return The Messier Object
+     * @throws NoSuchElementException Thrown if the object is not found
+     */
+    public MessierObject getByMessierNumber(String messierNumber) throws NoSuchElementException {
 
-        for (MessierObject object : this.messierObjects) {
+        PositionList positions = getNumberIndex().get(messierNumber);
+        MessierObject object = positions != null ? positions.first(this.messierObjects) : null;
 
-            if (object.getMessierNumber().equals(messierNumber)) {
-                return object;
-            }
+        if (object == null) {
+            throw new NoSuchElementException("Messier number: " + messierNumber + " does not exist.");
         }
 
-        throw new NoSuchElementException("Messier number: " + messierNumber + " does not exist.");
+        return object;
     }
 
     /**
-     * Get a catalogue of all Messier Objects that are of the passed type.
+     * Get a catalogue of all Messier Objects that are of the passed type. The
+     * result is a read-only snapshot, which doesn't follow later changes to this
+     * catalogue.
      * 
      * @param type The type
      * @return A Messier Catalogue containing all of the objects
      */
     public MessierCatalogue getByType(String type) {
+        return getView(getGroup(getTypeIndex(), type));
+    }
 
-        MessierCatalogue objects = new MessierCatalogue();
+    /**
+     * Get a catalogue of all Messier Objects that are in the passed
+     * constellation. The result is a read-only snapshot, which doesn't follow
+     * later changes to this catalogue.
+     * 
+     * @param constellation The constellation
+     * @return A Messier Catalogue containing all of the objects
+     */
+    public MessierCatalogue getByConstellation(String constellation) {
+        return getView(getGroup(getConstellationIndex(), constellation));
+    }
+
+    /**
+     * Get the statistics of all Messier Objects of the passed type, e.g. the
+     * mean apparent magnitude or the most distant object. Kept up to date as
+     * objects are added and removed, so reading them is O(1).
+     * 
+     * @param type The type
+     * @return The statistics, which are empty if there are no such objects
+     */
+    public GroupStatistics getTypeStatistics(String type) {
+        return readStatistics(getTypeStatisticsIndex(), type, this::getTypeIndex);
+    }
+
+    /**
+     * Get the statistics of all Messier Objects in the passed constellation.
+     * Kept up to date as objects are added and removed, so reading them is O(1).
+     * 
+     * @param constellation The constellation
+     * @return The statistics, which are empty if there are no such objects
+     */
+    public GroupStatistics getConstellationStatistics(String constellation) {
+        return readStatistics(getConstellationStatisticsIndex(), constellation, this::getConstellationIndex);
+    }
 
-        for (MessierObject object : this.messierObjects) {
+    /**
+     * Get a group's statistics, rebuilding them from its index if a removal left
+     * them stale.
+     */
+    private GroupStatistics readStatistics(Map<String, GroupStatistics> statistics, String key,
+            Supplier<Map<String, PositionList>> index) {
 
-            if (object.getType().equals(type)) {
-                objects.add(object);
-            }
+        GroupStatistics group = statistics.get(key);
+
+        if (group == null) {
+            return new GroupStatistics();
         }
 
-        return objects;
+        if (group.isStale()) {
+            group = new GroupStatistics(getGroup(index.get(), key));
+            statistics.put(key, group);
+        }
+
+        return group;
     }
 
     /**
-     * Get a catalogue of all Messier Objects that are in the passed constellation
+     * Get a catalogue of all Messier Objects with the passed NGC/IC number, e.g.
+     * "NGC 1952", ignoring case. The result is a read-only snapshot, which
+     * doesn't follow later changes to this catalogue.
      * 
-     * @param constellation The constellation
+     * @param ngcicNumber The NGC/IC number
      * @return A Messier Catalogue containing all of the objects
      */
-    public MessierCatalogue getByConstellation(String constellation) {
+    public MessierCatalogue getByNgcicNumber(String ngcicNumber) {
+        return getView(getNameIndex().getByNgcicNumber(ngcicNumber));
+    }
 
-        MessierCatalogue objects = new MessierCatalogue();
+    /**
+     * Get a catalogue of the Messier Objects with a common name starting with the
+     * passed prefix, ignoring case, in order of name. Meant for autocompletion,
+     * so only the first few are needed. The result is a read-only view.
+     * 
+     * @param prefix The start of the name
+     * @param limit  The most objects to return
+     * @return A Messier Catalogue containing at most limit objects
+     */
+    public MessierCatalogue getByNamePrefix(String prefix, int limit) {
+        return getView(getNameIndex().getByNamePrefix(prefix, limit));
+    }
 
-        for (MessierObject object : this.messierObjects) {
+    /**
+     * Start a query over the catalogue, e.g.
+     * query().type("Open cluster").magnitudeBelow(6).orderBy(...).limit(10).
+     * 
+     * @return The query
+     */
+    public CatalogueQuery query() {
+        return new CatalogueQuery(this);
+    }
 
-            if (object.getConstellation().equals(constellation)) {
-                objects.add(object);
-            }
-        }
+    /**
+     * Get a read-only view of the catalogue ordered by an attribute, lowest
+     * first. Objects with equal values stay in list order, as with sort.
+     * 
+     * @param attribute The attribute to order by
+     * @return A Messier Catalogue containing all of the objects
+     */
+    public MessierCatalogue getSorted(Attribute attribute) {
+        return getView(getRangeIndex(attribute).ascending());
+    }
 
-        return objects;
+    /**
+     * Get a read-only view of every Messier Object with an attribute between the
+     * bounds, inclusive, lowest first.
+     * 
+     * @param attribute The attribute
+     * @param low       The lower bound
+     * @param high      The upper bound
+     * @return A Messier Catalogue containing all of the objects
+     */
+    public MessierCatalogue getBetween(Attribute attribute, double low, double high) {
+        return getView(getRangeIndex(attribute).between(low, high));
+    }
+
+    /**
+     * Get a read-only view of every Messier Object with an apparent magnitude
+     * between the bounds, inclusive, brightest first.
+     * 
+     * @param low  The lower bound
+     * @param high The upper bound
+     * @return A Messier Catalogue containing all of the objects
+     */
+    public MessierCatalogue magnitudeBetween(double low, double high) {
+        return getBetween(Attribute.APPARENT_MAGNITUDE, low, high);
+    }
+
+    /**
+     * Get the Messier Object with the lowest value of an attribute. Ties go to
+     * the object that comes first in the list.
+     * 
+     * @param attribute The attribute
+     * @return The object, or null if the catalogue is empty
+     */
+    public MessierObject getLowest(Attribute attribute) {
+        return getRangeIndex(attribute).lowest();
+    }
+
+    /**
+     * Get the Messier Object with the highest value of an attribute. Ties go to
+     * the object that comes first in the list.
+     * 
+     * @param attribute The attribute
+     * @return The object, or null if the catalogue is empty
+     */
+    public MessierObject getHighest(Attribute attribute) {
+        return getRangeIndex(attribute).highest();
+    }
+
+    /**
+     * Get a read-only view of the n Messier Objects with the lowest values of an
+     * attribute, lowest first.
+     * 
+     * @param attribute The attribute
+     * @param n         The number of objects
+     * @return A Messier Catalogue containing at most n objects
+     */
+    public MessierCatalogue getLowest(Attribute attribute, int n) {
+        return getView(getRangeIndex(attribute).lowest(n));
+    }
+
+    /**
+     * Get a read-only view of the n Messier Objects with the highest values of an
+     * attribute, highest first.
+     * 
+     * @param attribute The attribute
+     * @param n         The number of objects
+     * @return A Messier Catalogue containing at most n objects
+     */
+    public MessierCatalogue getHighest(Attribute attribute, int n) {
+        return getView(getRangeIndex(attribute).highest(n));
+    }
+
+    /**
+     * Wrap a list of objects as a read-only view. Every index read builds a new
+     * list, which the view then owns, so it's a snapshot: later changes to this
+     * catalogue never show through it.
+     */
+    MessierCatalogue getView(List<MessierObject> objects) {
+        return new MessierCatalogue(objects);
+    }
+
+    /**
+     * Get the objects in one group of an index, in list order.
+     * 
+     * @param index The index
+     * @param key   The group's key
+     * @return A new list of the objects, which is empty if there is no group
+     */
+    List<MessierObject> getGroup(Map<String, PositionList> index, String key) {
+
+        PositionList positions = index.get(key);
+
+        return positions != null ? positions.toList(this.messierObjects) : new ArrayList<MessierObject>();
     }
 
     /**
      * Return the Messier Object that has the lowest angular distance to the passed
-     * Messier Object
+     * Messier Object. Backed by a spatial index that is built on first use.
      * 
      * @param object The object to be compared to
      * @return The object that is closest
@@ -197,38 +761,564 @@ public class MessierCatalogue {
             return null;
         }
 
-        MessierObject closestObject = get(0);
-        double shortestAngularDistance = Double.POSITIVE_INFINITY;
+        int closestIndex = getSpatialIndex().nearest(object);
 
-        for (MessierObject objects : this.messierObjects) {
+        // Nothing other than the object itself, fall back to the first object.
+        return get(closestIndex == -1 ? 0 : closestIndex);
+    }
 
-            double angularDistance = object.calcAngularDistance(objects);
+    /**
+     * Get a catalogue of the k Messier Objects that have the lowest angular
+     * distance to the passed Messier Object, closest first. As with getClosest,
+     * objects at zero distance (the object itself) are skipped.
+     * 
+     * @param object The object to be compared to
+     * @param k      The number of objects to return
+     * @return A Messier Catalogue containing at most k objects
+     */
+    public MessierCatalogue getKNearest(MessierObject object, int k) {
+
+        if (isEmpty()) {
+            return new MessierCatalogue();
+        }
+
+        return getByIndices(getSpatialIndex().nearest(object, k));
+    }
+
+    /**
+     * Get a catalogue of all Messier Objects within an angular distance of the
+     * passed Messier Object, closest first. As with getClosest, objects at zero
+     * distance (the object itself) are skipped.
+     * 
+     * @param object The centre of the search
+     * @param radius The angular radius in radians
+     * @return A Messier Catalogue containing all of the objects
+     */
+    public MessierCatalogue getWithinRadius(MessierObject object, double radius) {
+
+        MessierCatalogue objects = new MessierCatalogue();
 
-            if (angularDistance != 0 && angularDistance < shortestAngularDistance) {
-                shortestAngularDistance = angularDistance;
-                closestObject = objects;
+        for (MessierObject inside : getWithinRadius(object.getRightAscensionRadians(),
+                object.getDeclinationRadians(), radius).getList()) {
+
+            if (!SpatialIndex.isSamePosition(object.calcCosAngularDistance(inside))) {
+                objects.add(inside);
             }
         }
-        return closestObject;
+
+        return objects;
+    }
+
+    /**
+     * Get a catalogue of all Messier Objects within an angular distance of a
+     * position on the sky, closest first.
+     * 
+     * @param rightAscension The right ascension of the centre in radians
+     * @param declination    The declination of the centre in radians
+     * @param radius         The angular radius in radians
+     * @return A Messier Catalogue containing all of the objects
+     */
+    public MessierCatalogue getWithinRadius(double rightAscension, double declination, double radius) {
+
+        if (isEmpty()) {
+            return new MessierCatalogue();
+        }
+
+        return getByIndices(getSpatialIndex().withinRadius(rightAscension, declination, radius));
+    }
+
+    /**
+     * Find every pair of Messier Objects that are within an angular distance of
+     * each other. The work is spread across all available cores.
+     * 
+     * @param radius The angular distance in radians
+     * @return The pairs, as indices into this catalogue
+     */
+    public PairList findPairsWithin(double radius) {
+
+        if (this.pairFinder == null) {
+            this.pairFinder = new PairFinder(withoutGaps());
+        }
+
+        return this.pairFinder.findPairsWithin(radius);
+    }
+
+    private MessierCatalogue getByIndices(int[] indices) {
+
+        MessierCatalogue objects = new MessierCatalogue();
+
+        for (int index : indices) {
+            objects.add(get(index));
+        }
+
+        return objects;
     }
 
     /**
-     * Return the Messier Object at the given index
+     * Return the Messier Object at the given index. With gaps left by removals,
+     * it's found past them in O(log n).
      * 
      * @param index The index
      * @return The Messier Object
+     * @throws IndexOutOfBoundsException Thrown if there is no such index
+     */
+    public MessierObject get(int index) throws IndexOutOfBoundsException {
+
+        if (this.gaps == 0) {
+            return this.messierObjects.get(index);
+        }
+
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        if (this.ranks == null) {
+            this.ranks = new Ranks(this.messierObjects);
+        }
+
+        return this.messierObjects.get(this.ranks.find(index));
+    }
+
+    /**
+     * Get the list without its gaps, copying it only if there are any.
      */
-    public MessierObject get(int index) {
-        return this.messierObjects.get(index);
+    private List<MessierObject> withoutGaps() {
+        return this.gaps == 0 ? this.messierObjects : new ArrayList<MessierObject>(this.listView);
     }
 
     /* --------------------------- Getters and Setters -------------------------- */
 
+    /**
+     * Get the list of Messier Objects. It's a read-only view that follows later
+     * changes, and never shows the gaps left by removals, as reads skip them.
+     * Change the catalogue through its own methods.
+     * 
+     * @return The list
+     */
     public List<MessierObject> getList() {
-        return this.messierObjects;
+        return this.listView;
     }
 
     public void setList(List<MessierObject> list) {
+        checkWritable();
         this.messierObjects = list;
+        this.gaps = 0;
+        invalidateIndexes();
+    }
+
+    /* --------------------------------- Indexes -------------------------------- */
+
+    /**
+     * Build every index now and stop the catalogue from changing. Queries on a
+     * frozen catalogue only read, so once it's safely published any number of
+     * threads can query it without locking.
+     */
+    void freeze() {
+
+        checkWritable();
+        pack();
+
+        this.messierObjects = Collections.unmodifiableList(this.messierObjects);
+
+        getSpatialIndex();
+        getNumberIndex();
+        getTypeIndex();
+        getConstellationIndex();
+        getNameIndex();
+        getPositionIndex();
+        getTypeStatisticsIndex();
+        getConstellationStatisticsIndex();
+
+        for (Attribute attribute : Attribute.values()) {
+            getRangeIndex(attribute);
+        }
+
+        this.pairFinder = new PairFinder(this.messierObjects);
+        this.frozen = true;
+    }
+
+    private SpatialIndex getSpatialIndex() {
+
+        if (this.spatialIndex == null) {
+            this.spatialIndex = new SpatialIndex(withoutGaps());
+        }
+
+        return this.spatialIndex;
+    }
+
+    Map<String, PositionList> getNumberIndex() {
+
+        if (this.numberIndex == null) {
+            this.numberIndex = buildIndex(MessierObject::getMessierNumber);
+        }
+
+        return this.numberIndex;
+    }
+
+    Map<String, PositionList> getTypeIndex() {
+
+        if (this.typeIndex == null) {
+            this.typeIndex = buildIndex(MessierObject::getType);
+        }
+
+        return this.typeIndex;
+    }
+
+    Map<String, PositionList> getConstellationIndex() {
+
+        if (this.constellationIndex == null) {
+            this.constellationIndex = buildIndex(MessierObject::getConstellation);
+        }
+
+        return this.constellationIndex;
+    }
+
+    private Map<MessierObject, PositionList> getPositionIndex() {
+
+        if (this.positionIndex == null) {
+
+            // By reference, as MessierObject has no equals of its own.
+            this.positionIndex = new IdentityHashMap<MessierObject, PositionList>();
+
+            for (int i = 0; i < this.messierObjects.size(); i++) {
+
+                if (this.messierObjects.get(i) != null) {
+                    this.positionIndex.computeIfAbsent(this.messierObjects.get(i), k -> new PositionList()).add(i);
+                }
+            }
+        }
+
+        return this.positionIndex;
+    }
+
+    NameIndex getNameIndex() {
+
+        if (this.nameIndex == null) {
+            this.nameIndex = new NameIndex(this.messierObjects);
+        }
+
+        return this.nameIndex;
+    }
+
+    Map<String, GroupStatistics> getTypeStatisticsIndex() {
+
+        if (this.typeStatistics == null) {
+            this.typeStatistics = buildStatistics(MessierObject::getType);
+        }
+
+        return this.typeStatistics;
+    }
+
+    Map<String, GroupStatistics> getConstellationStatisticsIndex() {
+
+        if (this.constellationStatistics == null) {
+            this.constellationStatistics = buildStatistics(MessierObject::getConstellation);
+        }
+
+        return this.constellationStatistics;
+    }
+
+    RangeIndex getRangeIndex(Attribute attribute) {
+
+        RangeIndex index = this.rangeIndexes.get(attribute);
+
+        if (index == null) {
+            index = new RangeIndex(this.messierObjects, attribute);
+            this.rangeIndexes.put(attribute, index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Group the list positions by a key, keeping each group in list order.
+     * 
+     * @param key The function giving an object's key
+     * @return The groups
+     */
+    private Map<String, PositionList> buildIndex(Function<MessierObject, String> key) {
+
+        Map<String, PositionList> index = new HashMap<String, PositionList>();
+
+        for (int i = 0; i < this.messierObjects.size(); i++) {
+
+            MessierObject object = this.messierObjects.get(i);
+
+            if (object != null) {
+                index.computeIfAbsent(key.apply(object), k -> new PositionList()).add(i);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Gather the statistics of the objects grouped by a key.
+     * 
+     * @param key The function giving an object's key
+     * @return The statistics of each group
+     */
+    private Map<String, GroupStatistics> buildStatistics(Function<MessierObject, String> key) {
+
+        Map<String, GroupStatistics> statistics = new HashMap<String, GroupStatistics>();
+
+        for (MessierObject object : this.listView) {
+            statistics.computeIfAbsent(key.apply(object), k -> new GroupStatistics()).add(object);
+        }
+
+        return statistics;
+    }
+
+    private static void addToStatistics(Map<String, GroupStatistics> statistics, String key,
+            MessierObject object) {
+
+        if (statistics != null) {
+            statistics.computeIfAbsent(key, k -> new GroupStatistics()).add(object);
+        }
+    }
+
+    private static void removeFromStatistics(Map<String, GroupStatistics> statistics, String key,
+            MessierObject object) {
+
+        if (statistics == null) {
+            return;
+        }
+
+        GroupStatistics group = statistics.get(key);
+
+        if (group != null) {
+
+            group.remove(object);
+
+            if (group.getCount() == 0) {
+                statistics.remove(key);
+            }
+        }
+    }
+
+    private static void addToIndex(Map<String, PositionList> index, String key, int position) {
+
+        if (index != null) {
+            index.computeIfAbsent(key, k -> new PositionList()).add(position);
+        }
+    }
+
+    private static void remapIndex(Map<?, PositionList> index, int[] moved) {
+
+        if (index != null) {
+            index.values().removeIf(positions -> !positions.remap(moved));
+        }
+    }
+
+    /**
+     * Bring the indexes up to date after an object is added at a position at the
+     * end of the list.
+     */
+    private void indexAdded(int position) {
+
+        MessierObject object = this.messierObjects.get(position);
+
+        this.spatialIndex = null;
+        this.pairFinder = null;
+
+        addToIndex(this.numberIndex, object.getMessierNumber(), position);
+
+        if (this.positionIndex != null) {
+            this.positionIndex.computeIfAbsent(object, k -> new PositionList()).add(position);
+        }
+
+        if (this.ranks != null) {
+
+            if (this.ranks.fits(position)) {
+                this.ranks.update(position, 1);
+            } else {
+                this.ranks = null;
+            }
+        }
+
+        addToIndex(this.typeIndex, object.getType(), position);
+        addToIndex(this.constellationIndex, object.getConstellation(), position);
+        addToStatistics(this.typeStatistics, object.getType(), object);
+        addToStatistics(this.constellationStatistics, object.getConstellation(), object);
+
+        for (RangeIndex index : this.rangeIndexes.values()) {
+            index.add(position);
+        }
+
+        if (this.nameIndex != null) {
+            this.nameIndex.add(position);
+        }
+    }
+
+    /**
+     * Bring the statistics up to date after an object is swapped for a gap. The
+     * indexes skip the gap by themselves.
+     */
+    private void indexRemoved(MessierObject object) {
+
+        this.spatialIndex = null;
+        this.pairFinder = null;
+
+        removeFromStatistics(this.typeStatistics, object.getType(), object);
+        removeFromStatistics(this.constellationStatistics, object.getConstellation(), object);
+    }
+
+    /**
+     * Drop the indexes and statistics that group or order objects by their
+     * fields.
+     */
+    private void dropGroupIndexes() {
+        this.typeIndex = null;
+        this.constellationIndex = null;
+        this.rangeIndexes.clear();
+        this.nameIndex = null;
+        this.typeStatistics = null;
+        this.constellationStatistics = null;
+    }
+
+    /**
+     * Drop every index, so they are rebuilt from the list on next use. Used when
+     * the list is reordered or replaced.
+     */
+    private void invalidateIndexes() {
+
+        this.spatialIndex = null;
+        this.pairFinder = null;
+        this.numberIndex = null;
+        this.typeIndex = null;
+        this.constellationIndex = null;
+        this.rangeIndexes.clear();
+        this.nameIndex = null;
+        this.positionIndex = null;
+        this.ranks = null;
+        this.typeStatistics = null;
+        this.constellationStatistics = null;
+    }
+
+    /**
+     * Read-only view of the list, skipping any gaps.
+     */
+    private class ListView extends AbstractList<MessierObject> implements RandomAccess {
+
+        @Override
+        public MessierObject get(int index) {
+            return MessierCatalogue.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return MessierCatalogue.this.size();
+        }
+
+        @Override
+        public Iterator<MessierObject> iterator() {
+            return new Iterator<MessierObject>() {
+
+                private int position = skipGaps(0);
+
+                @Override
+                public boolean hasNext() {
+                    return this.position < MessierCatalogue.this.messierObjects.size();
+                }
+
+                @Override
+                public MessierObject next() {
+
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    MessierObject object = MessierCatalogue.this.messierObjects.get(this.position);
+
+                    this.position = skipGaps(this.position + 1);
+
+                    return object;
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<MessierObject> spliterator() {
+
+            // Without gaps, indexing is direct and the list can be split.
+            if (MessierCatalogue.this.gaps == 0) {
+                return super.spliterator();
+            }
+
+            return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+        }
+
+        private int skipGaps(int position) {
+
+            List<MessierObject> objects = MessierCatalogue.this.messierObjects;
+            int next = position;
+
+            while (next < objects.size() && objects.get(next) == null) {
+                next++;
+            }
+
+            return next;
+        }
+    }
+
+    /**
+     * Counts of the objects up to each list position, as a Fenwick tree, so the
+     * object at an index can be found past the gaps in O(log n).
+     */
+    private static class Ranks {
+
+        // 1-based, with a power of two length beyond the first slot.
+        private final int[] tree;
+
+        Ranks(List<MessierObject> objects) {
+
+            this.tree = new int[Integer.highestOneBit(Math.max(1, objects.size())) * 2 + 1];
+
+            for (int i = 0; i < objects.size(); i++) {
+
+                if (objects.get(i) != null) {
+                    this.tree[i + 1] = 1;
+                }
+            }
+
+            for (int i = 1; i < this.tree.length; i++) {
+
+                int parent = i + (i & -i);
+
+                if (parent < this.tree.length) {
+                    this.tree[parent] += this.tree[i];
+                }
+            }
+        }
+
+        boolean fits(int position) {
+            return position + 1 < this.tree.length;
+        }
+
+        void update(int position, int change) {
+
+            for (int i = position + 1; i < this.tree.length; i += i & -i) {
+                this.tree[i] += change;
+            }
+        }
+
+        /**
+         * Find the list position of the object at an index.
+         */
+        int find(int index) {
+
+            int position = 0;
+            int remaining = index + 1;
+
+            for (int step = this.tree.length - 1; step > 0; step >>= 1) {
+
+                if (position + step < this.tree.length && this.tree[position + step] < remaining) {
+                    position += step;
+                    remaining -= this.tree[position];
+                }
+            }
+
+            return position;
+        }
     }
 }
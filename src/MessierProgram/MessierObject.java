@@ -1,9 +1,8 @@
 package src.MessierProgram;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.text.DecimalFormat;
+import java.io.IOException;
 import java.lang.Math;
 import java.util.regex.Pattern;
 
@@ -11,16 +10,36 @@ public class MessierObject implements Comparable<MessierObject> {
 
     private String messierNumber;
     private String ngcicNumber;
-    private List<String> commonNames;
-    private String type;
-    private Double[] distanceRange;
-    private String constellation;
+    private List<String> commonNames; // Null until first read if set from a field
+    private String commonNamesField;
+    private int typeId; // Id in FieldDictionary.types
+    private double lowestDistance;
+    private double highestDistance;
+    private int constellationId; // Id in FieldDictionary.constellations
     private double apparentMagnitude;
     private double rightAscension; // Stored as radians
     private double declination; // Stored as radians
 
+    // Derived from the position by the setters, so proximity queries don't
+    // repeat the trig on every comparison.
+    private double sinDeclination;
+    private double cosDeclination;
+    private double unitX;
+    private double unitY;
+    private double unitZ;
+
     private static int fieldCount = 9;
 
+    // Compiled once rather than on every call. Only input the hand-written
+    // checks in EntryParser turn down is matched against these.
+    private static final Pattern messierNumberPattern = Pattern.compile("^M[0-9]+$");
+    private static final Pattern ngcicNumberPattern = Pattern.compile("^\"(((NGC )|(IC ))[0-9]+)|-\"$");
+    private static final Pattern commonNamesPattern = Pattern.compile("^\".+\"$");
+    private static final Pattern distanceRangePattern = Pattern.compile("^([0-9]+.[0-9]+)-([0-9]+.[0-9]+)$");
+    private static final Pattern distanceSinglePattern = Pattern.compile("^[0-9]+.[0-9]+$");
+    private static final Pattern rightAscensionPattern = Pattern.compile("^[0-9]+h [0-9]+m [0-9]*.[0-9]{4}s$");
+    private static final Pattern declinationPattern = Pattern.compile("^[-0-9]+° [0-9]+\' [0-9]*.[0-9]{4}\"$");
+
     /**
      * Constructor with table entry string.
      * 
@@ -28,19 +47,20 @@ public class MessierObject implements Comparable<MessierObject> {
      */
     public MessierObject(String entry) throws InvalidEntryException {
 
-        // Input validation done by setters.
+        // Input validation done by setters. The numeric fields are read straight
+        // out of the entry, without substrings.
         try {
-            String[] values = parseEntry(entry);
-
-            setMessierNumber(values[0]);
-            setNgcicNumber(values[1]);
-            setCommonNames(values[2]);
-            setType(values[3]);
-            setDistanceRange(values[4]);
-            setConstellation(values[5]);
-            setApparentMagnitude(Double.parseDouble(values[6]));
-            setRightAscensionTime(values[7]);
-            setDeclinationAngle(values[8]);
+            int[] fields = EntryParser.splitFields(entry, fieldCount);
+
+            setMessierNumber(entry.substring(fields[0], fields[1]));
+            setNgcicNumber(entry.substring(fields[2], fields[3]));
+            setCommonNames(entry.substring(fields[4], fields[5]));
+            setType(entry.substring(fields[6], fields[7]));
+            setDistanceRange(entry, fields[8], fields[9]);
+            setConstellation(entry.substring(fields[10], fields[11]));
+            setApparentMagnitude(EntryParser.parseDouble(entry, fields[12], fields[13]));
+            setRightAscensionTime(entry, fields[14], fields[15]);
+            setDeclinationAngle(entry, fields[16], fields[17]);
 
         } catch (InvalidEntryException exception) {
             throw exception;
@@ -83,50 +103,58 @@ public class MessierObject implements Comparable<MessierObject> {
     }
 
     /**
-     * Parse through the given table entry, picking out fields,
-     * leaving any delimeters wrapped by double quotation marks.
-     * Specifically for quotation aware CSV.
+     * Constructor with all value fields, taking the distance range as two
+     * primitives.
      * 
-     * @param entry     The table entry line
-     * @param delimeter The delimeter character
-     * @return The fields in string array
+     * @param messierNumber
+     * @param ngcicNumber
+     * @param commonNames
+     * @param type
+     * @param lowestDistance
+     * @param highestDistance
+     * @param constellation
+     * @param apparentMagnitude
+     * @param rightAscension    In radians
+     * @param declination       In radians
+     * @throws InvalidEntryException Thrown if any values fail validation
      */
-    private static String[] parseEntry(String entry) throws InvalidEntryException {
-
-        // Parser to iterates over every character, appending the field when it
-        // encounters a comma not wrapped by a double quote. Whilst this could be done
-        // with regex I felt that this implementation, whilst probably slower, is more
-        // readable (and actually works) than the cryptic haze that is my bad attempt at
-        // regex.
-        // ,(?=([^\"]*\"[^\"]*\")*[^\"]*$)
-        // ,(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)
-        // (["'])(?:(?=(\\?))\2.)*?\1
-
-        int prevPosition = 0;
-        List<String> valuesList = new ArrayList<String>();
-        boolean inQuotes = false;
-
-        for (int position = 0; position < entry.length(); position++) {
-
-            if (entry.charAt(position) == '\"') {
-                inQuotes = !inQuotes;
-
-            } else if (entry.charAt(position) == ',' && !inQuotes) {
-                valuesList.add(entry.substring(prevPosition, position));
-                prevPosition = position + 2;
-            }
-        }
+    public MessierObject(String messierNumber, String ngcicNumber, List<String> commonNames, String type,
+            double lowestDistance, double highestDistance, String constellation, double apparentMagnitude,
+            double rightAscension, double declination) throws InvalidEntryException {
 
-        valuesList.add(entry.substring(prevPosition));
+        setMessierNumber(messierNumber);
+        setNgcicNumber(ngcicNumber);
+        setCommonNames(commonNames);
+        setType(type);
+        setDistanceRange(lowestDistance, highestDistance);
+        setConstellation(constellation);
+        setApparentMagnitude(apparentMagnitude);
+        setRightAscensionRadians(rightAscension);
+        setDeclinationRadians(declination);
+    }
 
-        String[] valuesArray = valuesList.toArray(new String[valuesList.size()]);
+    /**
+     * Constructor for values copied from an object that was already validated,
+     * such as a ColumnarCatalogue row, so the checks are skipped. Either the
+     * common names or the field they're still to be split from may be null.
+     */
+    MessierObject(String messierNumber, String ngcicNumber, List<String> commonNames, String commonNamesField,
+            int typeId, double lowestDistance, double highestDistance, int constellationId,
+            double apparentMagnitude, double rightAscension, double declination) {
 
-        if (valuesArray.length != fieldCount) {
-            throw new InvalidEntryException(
-                    "Invalid number of fields. Expected " + fieldCount + ", got: " + valuesArray.length);
-        }
+        this.messierNumber = messierNumber;
+        this.ngcicNumber = ngcicNumber;
+        this.commonNames = commonNames;
+        this.commonNamesField = commonNamesField;
+        this.typeId = typeId;
+        this.lowestDistance = lowestDistance;
+        this.highestDistance = highestDistance;
+        this.constellationId = constellationId;
+        this.apparentMagnitude = apparentMagnitude;
+        this.rightAscension = rightAscension;
+        this.declination = declination;
 
-        return valuesArray;
+        updatePosition();
     }
 
     /**
@@ -168,15 +196,16 @@ public class MessierObject implements Comparable<MessierObject> {
      */
     private static String rightAscensionToTime(double rightAscensionRad) {
 
-        double time = Math.toDegrees(rightAscensionRad) / 15;
+        StringBuilder time = new StringBuilder(20);
 
-        double hours = Math.floor(time);
-        double minutes = Math.floor((time - hours) * 60);
-        double seconds = (((time - hours) * 60) - minutes) * 60.0;
+        try {
+            EntryFormatter.appendRightAscension(rightAscensionRad, time);
 
-        DecimalFormat decimalFormat = new DecimalFormat("#.0000");
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
 
-        return ((int) hours + "h " + (int) minutes + "m " + decimalFormat.format(seconds) + "s");
+        return time.toString();
     }
 
     /**
@@ -201,15 +230,16 @@ public class MessierObject implements Comparable<MessierObject> {
      */
     private static String declinationToAngle(double declinationRad) {
 
-        double angle = Math.toDegrees(declinationRad);
+        StringBuilder angle = new StringBuilder(20);
 
-        double degrees = Math.floor(angle);
-        double arcMinutes = Math.floor((angle - degrees) * 60);
-        double arcSeconds = (((angle - degrees) * 60) - arcMinutes) * 60.0;
+        try {
+            EntryFormatter.appendDeclination(declinationRad, angle);
 
-        DecimalFormat decimalFormat = new DecimalFormat("#.0000");
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
 
-        return ((int) degrees + "° " + (int) arcMinutes + "' " + decimalFormat.format(arcSeconds) + "\"");
+        return angle.toString();
     }
 
     /**
@@ -220,39 +250,101 @@ public class MessierObject implements Comparable<MessierObject> {
      */
     public String toString() {
 
-        String[] properties = { getMessierNumber(), getNgcicNumber(), commonNamesToString(), getType(),
-                distanceRangeToString(), getConstellation(), Double.toString(getApparentMagnitude()),
-                getRightAscensionTime(), getDeclinationAngle() };
+        StringBuilder string = new StringBuilder(128);
 
-        String string = "";
-
-        for (int i = 0; i < properties.length; i++) {
-
-            if (i != 0) {
-                string += ", " + properties[i];
+        try {
+            writeTo(string);
 
-            } else {
-                string += properties[i];
-            }
+        } catch (IOException exception) {
+            // StringBuilder never throws.
+            throw new IllegalStateException(exception);
         }
 
-        return string;
+        return string.toString();
+    }
+
+    /**
+     * Write all of the objects fields in the database format, as toString gives,
+     * without building a string first.
+     * 
+     * @param out Where to write the object
+     * @throws IOException Thrown if the Appendable can't be written to
+     */
+    public void writeTo(Appendable out) throws IOException {
+        EntryFormatter.appendEntry(this, out);
     }
 
     /**
-     * Calculate the angular distance between this object and the passed one.
+     * Calculate the angular distance between this object and the passed one,
+     * using the spherical law of cosines.
      * 
      * @param object The messier object you want to get the distance to
      * @return The angular distance in radians
      */
     public double calcAngularDistance(MessierObject object) {
+        return calcAngularDistance(object, AngularDistanceFormula.LAW_OF_COSINES);
+    }
 
-        // Formula: cos(θ) = sin(δ1) * sin(δ2) + cos(δ1) * cos(δ2) * cos(α1 - α2)
-        // δ == Declination
-        // α == Right ascension
-        return Math.acos(((Math.sin(getDeclinationRadians()) * Math.sin(object.getDeclinationRadians()))
-                + (Math.cos(getDeclinationRadians()) * Math.cos(object.getDeclinationRadians())
-                        * (Math.cos(getRightAscensionRadians() - object.getRightAscensionRadians())))));
+    /**
+     * Calculate the angular distance between this object and the passed one,
+     * using the passed formula.
+     * 
+     * @param object  The messier object you want to get the distance to
+     * @param formula The formula to calculate it with
+     * @return The angular distance in radians
+     */
+    public double calcAngularDistance(MessierObject object, AngularDistanceFormula formula) {
+
+        // Passes the cached sin and cos so the formula doesn't recompute them.
+        return formula.calculate(this.rightAscension, this.declination, this.sinDeclination, this.cosDeclination,
+                object.rightAscension, object.declination, object.sinDeclination, object.cosDeclination);
+    }
+
+    /**
+     * Calculate the angular distance between two positions on the sky, using the
+     * spherical law of cosines.
+     * 
+     * @param rightAscension1 The first right ascension in radians
+     * @param declination1    The first declination in radians
+     * @param rightAscension2 The second right ascension in radians
+     * @param declination2    The second declination in radians
+     * @return The angular distance in radians
+     */
+    public static double calcAngularDistance(double rightAscension1, double declination1, double rightAscension2,
+            double declination2) {
+
+        return AngularDistanceFormula.LAW_OF_COSINES.calculate(rightAscension1, declination1, rightAscension2,
+                declination2);
+    }
+
+    /**
+     * Calculate the angular distance between this object and a position whose
+     * declination's sin and cos are already known, using the spherical law of
+     * cosines and this object's cached trig values.
+     * 
+     * @param rightAscension The right ascension in radians
+     * @param declination    The declination in radians
+     * @param sinDeclination The sin of the declination
+     * @param cosDeclination The cos of the declination
+     * @return The angular distance in radians
+     */
+    double calcAngularDistanceTo(double rightAscension, double declination, double sinDeclination,
+            double cosDeclination) {
+
+        return AngularDistanceFormula.LAW_OF_COSINES.calculate(rightAscension, declination, sinDeclination,
+                cosDeclination, this.rightAscension, this.declination, this.sinDeclination, this.cosDeclination);
+    }
+
+    /**
+     * Calculate the cosine of the angular distance between this object and the
+     * passed one, as the dot product of their unit vectors. Larger values are
+     * closer, so this can be used to rank objects without paying for acos.
+     * 
+     * @param object The messier object you want to compare to
+     * @return The cosine of the angular distance
+     */
+    public double calcCosAngularDistance(MessierObject object) {
+        return this.unitX * object.unitX + this.unitY * object.unitY + this.unitZ * object.unitZ;
     }
 
     @Override
@@ -285,9 +377,9 @@ public class MessierObject implements Comparable<MessierObject> {
      * @throws InvalidEntryException thrown if it doesn't conform
      */
     public void setMessierNumber(String messierNumber) throws InvalidEntryException {
-        Pattern pattern = Pattern.compile("^M[0-9]+$");
+        Pattern pattern = messierNumberPattern;
 
-        if (pattern.matcher(messierNumber).find()) {
+        if (EntryParser.isMessierNumber(messierNumber) || pattern.matcher(messierNumber).find()) {
             this.messierNumber = messierNumber;
 
         } else {
@@ -309,9 +401,9 @@ public class MessierObject implements Comparable<MessierObject> {
      * @throws InvalidEntryException thrown if it doesn't conform
      */
     public void setNgcicNumber(String ngcicNumber) throws InvalidEntryException {
-        Pattern pattern = Pattern.compile("^\"(((NGC )|(IC ))[0-9]+)|-\"$");
+        Pattern pattern = ngcicNumberPattern;
 
-        if (pattern.matcher(ngcicNumber).find()) {
+        if (EntryParser.isNgcicNumber(ngcicNumber) || pattern.matcher(ngcicNumber).find()) {
             this.ngcicNumber = ngcicNumber;
 
         } else {
@@ -320,8 +412,33 @@ public class MessierObject implements Comparable<MessierObject> {
         }
     }
 
+    /**
+     * Get the common names. A field passed to setCommonNames(String) is only
+     * split into names here, the first time they're asked for.
+     * 
+     * @return The common names
+     */
     public List<String> getCommonNames() {
-        return this.commonNames;
+
+        List<String> commonNames = this.commonNames;
+
+        if (commonNames == null && this.commonNamesField != null) {
+            commonNames = EntryParser.splitNames(this.commonNamesField);
+            this.commonNames = commonNames;
+        }
+
+        return commonNames;
+    }
+
+    /**
+     * Get the common names field if it hasn't been split into names yet, so it
+     * can be copied without splitting it.
+     * 
+     * @return The field, or null if the names have been split or were set as a
+     *         list
+     */
+    String getCommonNamesField() {
+        return this.commonNames == null ? this.commonNamesField : null;
     }
 
     /**
@@ -331,31 +448,22 @@ public class MessierObject implements Comparable<MessierObject> {
      */
     public String commonNamesToString() {
 
-        String string = "\"";
-
-        for (int i = 0; i < this.commonNames.size(); i++) {
-
-            if (i == 0) {
-                string += this.commonNames.get(i);
-
-            } else if (i == this.commonNames.size() - 1 && this.commonNames.size() != 2) {
-                string += ", or " + this.commonNames.get(i);
+        StringBuilder string = new StringBuilder();
 
-            } else if (i == this.commonNames.size() - 1 && this.commonNames.size() == 2) {
-                string += " or " + this.commonNames.get(i);
+        try {
+            EntryFormatter.appendCommonNames(getCommonNames(), string);
 
-            } else {
-                string += ", " + this.commonNames.get(i);
-            }
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
         }
-        string += "\"";
 
-        return string;
+        return string.toString();
     }
 
     public void setCommonNames(List<String> commonNames) {
         // Just a list of strings, no real validation required.
         this.commonNames = commonNames;
+        this.commonNamesField = null;
     }
 
     /**
@@ -365,14 +473,21 @@ public class MessierObject implements Comparable<MessierObject> {
      * 
      * @apiNote Checked against regex:^\".+$\"
      * @apiNote Split via regex:( or )|(, or )|,
+     * @apiNote A field that passes the quick check is kept as is and only split
+     *          when getCommonNames is first called, so loads that never read the
+     *          names skip the work.
      * 
      * @param field
      * @throws InvalidEntryException
      */
     public void setCommonNames(String field) throws InvalidEntryException {
-        Pattern pattern = Pattern.compile("^\".+\"$");
+        Pattern pattern = commonNamesPattern;
 
-        if (pattern.matcher(field).find()) {
+        if (EntryParser.isQuoted(field)) {
+            this.commonNames = null;
+            this.commonNamesField = field;
+
+        } else if (pattern.matcher(field).find()) {
             field = field.replace("\"", "\u0000");
             String[] values = field.split("( or )|(, or )|,");
 
@@ -381,6 +496,7 @@ public class MessierObject implements Comparable<MessierObject> {
             }
 
             this.commonNames = Arrays.asList(values);
+            this.commonNamesField = null;
 
         } else {
             throw new InvalidEntryException(
@@ -389,28 +505,38 @@ public class MessierObject implements Comparable<MessierObject> {
     }
 
     public String getType() {
-        return this.type;
+        return FieldDictionary.types.get(this.typeId);
+    }
+
+    public int getTypeId() {
+        return this.typeId;
     }
 
     public void setType(String type) {
         // Just a string, no real validation required.
-        this.type = type;
+        this.typeId = FieldDictionary.types.add(type);
     }
 
+    /**
+     * Get the distance range as a new array in the form [shortest, longest]. Kept
+     * for older callers, prefer the primitive getters.
+     * 
+     * @return The array containing the distances
+     */
     public Double[] getDistanceRange() {
-        return this.distanceRange;
+        return new Double[] { this.lowestDistance, this.highestDistance };
     }
 
     public double getLowestDistance() {
-        return this.distanceRange[0];
+        return this.lowestDistance;
     }
 
     public double getMeanDistance() {
-        return (this.distanceRange[0] + this.distanceRange[1]) / 2;
+        return (this.lowestDistance + this.highestDistance) / 2;
     }
 
     public double getHighestDistance() {
-        return this.distanceRange[1];
+        return this.highestDistance;
     }
 
     /**
@@ -419,16 +545,17 @@ public class MessierObject implements Comparable<MessierObject> {
      * @return The string
      */
     public String distanceRangeToString() {
-        if (this.distanceRange[0].equals(this.distanceRange[1])) {
-            return this.distanceRange[0].toString();
+        if (Double.compare(this.lowestDistance, this.highestDistance) == 0) {
+            return Double.toString(this.lowestDistance);
 
         } else {
-            return this.distanceRange[0] + "-" + this.distanceRange[1];
+            return this.lowestDistance + "-" + this.highestDistance;
         }
     }
 
     public void setDistanceRange(double lowestDistance, double highestDistance) {
-        this.distanceRange = new Double[] { lowestDistance, highestDistance };
+        this.lowestDistance = lowestDistance;
+        this.highestDistance = highestDistance;
     }
 
     /**
@@ -443,12 +570,12 @@ public class MessierObject implements Comparable<MessierObject> {
             throw new InvalidEntryException(
                     "Expected distanceRange[] array to be 2 elements, got: " + distanceRange.length + ".");
         } else {
-            this.distanceRange = distanceRange;
+            setDistanceRange(distanceRange[0], distanceRange[1]);
         }
     }
 
     /**
-     * Set distance range by turning the field into an array of doubles. Must
+     * Set distance range by turning the field into a pair of doubles. Must
      * conform to "1.1" | "1.2-2.3".
      * 
      * @apiNote Checked against regex:^([0-9]+.[0-9]+)-([0-9]+.[0-9]+)$
@@ -458,20 +585,53 @@ public class MessierObject implements Comparable<MessierObject> {
      * @throws InvalidEntryException
      */
     public void setDistanceRange(String field) throws InvalidEntryException {
-        Pattern patternRange = Pattern.compile("^([0-9]+.[0-9]+)-([0-9]+.[0-9]+)$");
-        Pattern patternSingle = Pattern.compile("^[0-9]+.[0-9]+$");
+        setDistanceRange(field, 0, field.length());
+    }
+
+    /**
+     * Set distance range from part of a string, without taking a substring when
+     * the field is well formed.
+     * 
+     * @param text  The text holding the field
+     * @param start The start of the field
+     * @param end   The end of the field
+     * @throws InvalidEntryException
+     */
+    void setDistanceRange(String text, int start, int end) throws InvalidEntryException {
+
+        int separator = start;
+
+        while (separator < end && text.charAt(separator) != '-') {
+            separator++;
+        }
+
+        double lowest = EntryParser.parsePointed(text, start, separator);
+        double highest = separator == end ? lowest : EntryParser.parsePointed(text, separator + 1, end);
+
+        if (!Double.isNaN(lowest) && !Double.isNaN(highest)) {
+            setDistanceRange(lowest, highest);
+
+        } else {
+            setDistanceRangeChecked(text.substring(start, end));
+        }
+    }
+
+    private void setDistanceRangeChecked(String field) throws InvalidEntryException {
+        Pattern patternRange = distanceRangePattern;
+        Pattern patternSingle = distanceSinglePattern;
 
         if (patternRange.matcher(field).find()) {
 
-            String[] distances = field.split("-");
+            int separator = field.indexOf('-');
 
-            this.distanceRange = new Double[2];
-            this.distanceRange[0] = Double.parseDouble(distances[0]);
-            this.distanceRange[1] = Double.parseDouble(distances[1]);
+            setDistanceRange(Double.parseDouble(field.substring(0, separator)),
+                    Double.parseDouble(field.substring(separator + 1)));
 
         } else if (patternSingle.matcher(field).find()) {
 
-            this.distanceRange = new Double[] { Double.parseDouble(field), Double.parseDouble(field) };
+            double distance = Double.parseDouble(field);
+
+            setDistanceRange(distance, distance);
 
         } else {
             throw new InvalidEntryException("Invalid distance range. Must conform to " + patternRange.toString() + " | "
@@ -480,12 +640,16 @@ public class MessierObject implements Comparable<MessierObject> {
     }
 
     public String getConstellation() {
-        return this.constellation;
+        return FieldDictionary.constellations.get(this.constellationId);
+    }
+
+    public int getConstellationId() {
+        return this.constellationId;
     }
 
     public void setConstellation(String constellation) {
         // Just a string, no real validation required.
-        this.constellation = constellation;
+        this.constellationId = FieldDictionary.constellations.add(constellation);
     }
 
     public double getApparentMagnitude() {
@@ -519,13 +683,50 @@ public class MessierObject implements Comparable<MessierObject> {
     public void setRightAscensionRadians(double raAsRadian) {
         // Just a double, no real validation required.
         this.rightAscension = raAsRadian;
+        updatePosition();
     }
 
     public void setRightAscensionTime(String field) throws InvalidEntryException {
-        Pattern pattern = Pattern.compile("^[0-9]+h [0-9]+m [0-9]+.[0-9]{4}s$");
+        setRightAscensionTime(field, 0, field.length());
+    }
+
+    /**
+     * Set right ascension from part of a string, without taking a substring when
+     * the field is well formed.
+     * 
+     * @param text  The text holding the field, as "(hours)h (minutes)m
+     *              (seconds)s"
+     * @param start The start of the field
+     * @param end   The end of the field
+     * @throws InvalidEntryException
+     */
+    void setRightAscensionTime(String text, int start, int end) throws InvalidEntryException {
+
+        int hoursEnd = EntryParser.skipDigits(text, start, end);
+        int minutesStart = hoursEnd + 2;
+        int minutesEnd = EntryParser.skipDigits(text, Math.min(minutesStart, end), end);
+
+        if (hoursEnd > start && minutesEnd > minutesStart && minutesEnd + 2 < end
+                && text.startsWith("h ", hoursEnd) && text.startsWith("m ", minutesEnd)) {
+
+            double hours = EntryParser.parseDecimal(text, start, hoursEnd);
+            double minutes = EntryParser.parseDecimal(text, minutesStart, minutesEnd);
+            double seconds = EntryParser.parseSeconds(text, minutesEnd + 2, end, 's');
+
+            if (!Double.isNaN(hours) && !Double.isNaN(minutes) && !Double.isNaN(seconds)) {
+                setRightAscensionRadians(Math.toRadians((hours + (minutes / 60) + (seconds / 3600)) * 15));
+                return;
+            }
+        }
+
+        setRightAscensionTimeChecked(text.substring(start, end));
+    }
+
+    private void setRightAscensionTimeChecked(String field) throws InvalidEntryException {
+        Pattern pattern = rightAscensionPattern;
 
         if (pattern.matcher(field).find()) {
-            this.rightAscension = rightAscensionToRadians(field);
+            setRightAscensionRadians(rightAscensionToRadians(field));
         } else {
             throw new InvalidEntryException(
                     "Invalid Right Ascension. Must conform to " + pattern.toString() + ", got: " + field);
@@ -544,13 +745,53 @@ public class MessierObject implements Comparable<MessierObject> {
     public void setDeclinationRadians(double decAsRadian) {
         // Just a double, no real validation required.
         this.declination = decAsRadian;
+        updatePosition();
     }
 
     public void setDeclinationAngle(String field) throws InvalidEntryException {
-        Pattern pattern = Pattern.compile("^[-0-9]+° [0-9]+\' [0-9]+.[0-9]{4}\"$");
+        setDeclinationAngle(field, 0, field.length());
+    }
+
+    /**
+     * Set declination from part of a string, without taking a substring when the
+     * field is well formed.
+     * 
+     * @param text  The text holding the field, as "(degrees)° (arcMinutes)'
+     *              (arcSeconds)""
+     * @param start The start of the field
+     * @param end   The end of the field
+     * @throws InvalidEntryException
+     */
+    void setDeclinationAngle(String text, int start, int end) throws InvalidEntryException {
+
+        boolean negative = start < end && text.charAt(start) == '-';
+        int degreesStart = negative ? start + 1 : start;
+        int degreesEnd = EntryParser.skipDigits(text, degreesStart, end);
+        int minutesStart = degreesEnd + 2;
+        int minutesEnd = EntryParser.skipDigits(text, Math.min(minutesStart, end), end);
+
+        if (degreesEnd > degreesStart && minutesEnd > minutesStart && minutesEnd + 2 < end
+                && text.startsWith("° ", degreesEnd) && text.startsWith("' ", minutesEnd)) {
+
+            double degrees = EntryParser.parseDecimal(text, degreesStart, degreesEnd);
+            double arcMinutes = EntryParser.parseDecimal(text, minutesStart, minutesEnd);
+            double arcSeconds = EntryParser.parseSeconds(text, minutesEnd + 2, end, '\"');
+
+            if (!Double.isNaN(degrees) && !Double.isNaN(arcMinutes) && !Double.isNaN(arcSeconds)) {
+                degrees = negative ? -degrees : degrees;
+                setDeclinationRadians(Math.toRadians(degrees + (arcMinutes / 60) + (arcSeconds / 3600)));
+                return;
+            }
+        }
+
+        setDeclinationAngleChecked(text.substring(start, end));
+    }
+
+    private void setDeclinationAngleChecked(String field) throws InvalidEntryException {
+        Pattern pattern = declinationPattern;
 
         if (pattern.matcher(field).find()) {
-            this.declination = declinationToRadians(field);
+            setDeclinationRadians(declinationToRadians(field));
 
         } else {
             throw new InvalidEntryException(
@@ -558,4 +799,47 @@ public class MessierObject implements Comparable<MessierObject> {
         }
 
     }
+
+    /**
+     * Get the x component of the unit vector pointing at the object, where x
+     * points at right ascension 0h on the celestial equator.
+     * 
+     * @return The x component
+     */
+    public double getUnitX() {
+        return this.unitX;
+    }
+
+    /**
+     * Get the y component of the unit vector pointing at the object, where y
+     * points at right ascension 6h on the celestial equator.
+     * 
+     * @return The y component
+     */
+    public double getUnitY() {
+        return this.unitY;
+    }
+
+    /**
+     * Get the z component of the unit vector pointing at the object, where z
+     * points at the north celestial pole.
+     * 
+     * @return The z component
+     */
+    public double getUnitZ() {
+        return this.unitZ;
+    }
+
+    /**
+     * Refresh the cached trig values after the position changes.
+     */
+    private void updatePosition() {
+
+        this.sinDeclination = Math.sin(this.declination);
+        this.cosDeclination = Math.cos(this.declination);
+
+        this.unitX = this.cosDeclination * Math.cos(this.rightAscension);
+        this.unitY = this.cosDeclination * Math.sin(this.rightAscension);
+        this.unitZ = this.sinDeclination;
+    }
 }
@@ -1,7 +1,7 @@
 package src.MessierProgram;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Paths;
 
 import src.tests.TestHarness;
 
@@ -10,6 +10,10 @@ import src.tests.TestHarness;
  */
 public class MessierProgram {
 
+    // The most invalid entries a start will skip before giving up, so one bad
+    // row doesn't stop the catalogue loading.
+    private static final int loadErrorBudget = 10;
+
     public static void main(String[] args) {
 
         runTests();
@@ -20,42 +24,60 @@ public class MessierProgram {
     }
 
     /**
-     * Setup the catalogue.
+     * Setup the catalogue, from a binary snapshot of the file when there's an up
+     * to date one, so the text doesn't have to be parsed again.
      * 
      * @return The Messier Object Catalogue
      */
     public static MessierCatalogue fetchData(String path) {
+        return fetchData(path, 0);
+    }
+
+    /**
+     * Setup the catalogue as above, skipping invalid entries rather than
+     * stopping, as long as there are no more than the passed number.
+     * 
+     * @param path      The path to the catalogue file
+     * @param maxErrors The most invalid entries to skip
+     * @return The Messier Object Catalogue
+     */
+    public static MessierCatalogue fetchData(String path, int maxErrors) {
 
         MessierCatalogue catalogue = new MessierCatalogue();
 
         try {
-            IOHandler ioHandler = new IOHandler(path);
-
-            ArrayList<String> entries = ioHandler.getEntries();
+            LoadReport report = new IOHandler(path).loadWithSnapshot(Paths.get(path + ".snapshot"), maxErrors);
 
-            for (String entry : entries) {
-                catalogue.add(new MessierObject(entry));
+            for (InvalidEntryException error : report.getErrors()) {
+                System.out.println("Skipped invalid data entry. " + error.getMessage());
             }
 
+            catalogue = report.getCatalogue();
+
         } catch (InvalidEntryException | IOException exception) {
-            exception.printStackTrace();
+            fail(path, exception);
+        }
 
-            if (exception instanceof InvalidEntryException) {
-                System.out.println("\nFatal error: " + path + " contains invalid data entry.");
+        return catalogue;
+    }
 
-            } else {
-                System.out.println("\nFatal error: Failed to read: " + path);
-            }
+    private static void fail(String path, Exception exception) {
 
-            System.exit(0);
+        exception.printStackTrace();
+
+        if (exception instanceof InvalidEntryException) {
+            System.out.println("\nFatal error: " + path + " contains invalid data entry.");
+
+        } else {
+            System.out.println("\nFatal error: Failed to read: " + path);
         }
 
-        return catalogue;
+        System.exit(0);
     }
 
     public static void runQueries(String path) {
 
-        MessierCatalogue catalogue = fetchData(path);
+        MessierCatalogue catalogue = fetchData(path, loadErrorBudget);
 
         queryA(catalogue);
         queryB(catalogue);
@@ -84,8 +106,7 @@ public class MessierProgram {
     public static void queryA(MessierCatalogue catalogue) {
 
         System.out.println("\n--------------------------------- Query A --------------------------------\n");
-        catalogue.sort();
-        System.out.println(catalogue.toString());
+        System.out.println(catalogue.getSorted(Attribute.APPARENT_MAGNITUDE).toString());
     }
 
     /**
@@ -95,16 +116,10 @@ public class MessierProgram {
 
         System.out.println("\n--------------------------------- Query B --------------------------------\n");
 
-        MessierCatalogue openClusters = catalogue.getByType("Open cluster");
-
-        double avgApparentMagnitude = 0.0;
+        double avgApparentMagnitude = catalogue.getTypeStatistics("Open cluster")
+                .getMean(Attribute.APPARENT_MAGNITUDE);
 
-        for (MessierObject object : openClusters.getList()) {
-            avgApparentMagnitude += object.getApparentMagnitude();
-        }
-
-        System.out.println(
-                "Average apparent magnitude of open clusters: " + (avgApparentMagnitude /= openClusters.size()));
+        System.out.println("Average apparent magnitude of open clusters: " + avgApparentMagnitude);
     }
 
     /**
@@ -114,15 +129,8 @@ public class MessierProgram {
 
         System.out.println("\n--------------------------------- Query C --------------------------------\n");
 
-        MessierCatalogue globularClusters = catalogue.getByType("Globular cluster");
-
-        MessierObject mostDistantObject = globularClusters.get(0);
-
-        for (MessierObject globularCluster : globularClusters.getList()) {
-            if (globularCluster.getLowestDistance() > mostDistantObject.getLowestDistance()) {
-                mostDistantObject = globularCluster;
-            }
-        }
+        MessierObject mostDistantObject = catalogue.getTypeStatistics("Globular cluster")
+                .getHighest(Attribute.LOWEST_DISTANCE);
 
         System.out.println("Most distant globular cluster:\n" + mostDistantObject.toString());
     }
@@ -135,16 +143,8 @@ public class MessierProgram {
 
         System.out.println("\n--------------------------------- Query D --------------------------------\n");
 
-        MessierCatalogue sagittarius = catalogue.getByConstellation("Sagittarius");
-
-        MessierObject lowestObject = sagittarius.get(0);
-
-        for (int i = 1; i < sagittarius.size(); i++) {
-
-            if (sagittarius.get(i).getDeclinationRadians() < lowestObject.getDeclinationRadians()) {
-                lowestObject = sagittarius.get(i);
-            }
-        }
+        MessierObject lowestObject = catalogue.getConstellationStatistics("Sagittarius")
+                .getLowest(Attribute.DECLINATION);
 
         System.out.println("Object with the lowest declination within Sagittarius:\n" + lowestObject.toString());
     }
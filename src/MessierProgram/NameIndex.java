@@ -0,0 +1,198 @@
+package src.MessierProgram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An index of Messier Objects by name: an exact lookup on NGC/IC numbers, and
+ * a sorted map of common names for prefix searches. Both ignore case, and
+ * skip the "-" placeholder used for objects without one. An object listing
+ * several NGC/IC numbers, such as M51's "NGC 5194, NGC 5195", is found by each.
+ *
+ * Objects sharing a name are kept in the order they were added, as with the
+ * other indexes. Like them, it holds positions in the list it was built from,
+ * and skips the gaps left there by removals.
+ */
+public class NameIndex {
+
+    private static final String placeholder = "-";
+    private static final String numberSeparator = ", ";
+
+    private final List<MessierObject> objects;
+    private final Map<String, PositionList> ngcicNumbers;
+    private final TreeMap<String, PositionList> commonNames;
+
+    /**
+     * Build the index over the passed list, skipping any gaps.
+     *
+     * @param objects The Messier Objects to index, which the index reads from
+     */
+    public NameIndex(List<MessierObject> objects) {
+
+        this.objects = objects;
+        this.ngcicNumbers = new HashMap<String, PositionList>();
+        this.commonNames = new TreeMap<String, PositionList>();
+
+        for (int i = 0; i < objects.size(); i++) {
+
+            if (objects.get(i) != null) {
+                add(i);
+            }
+        }
+    }
+
+    /**
+     * Add the object at a list position after any others with the same names.
+     *
+     * @param position The list position
+     */
+    void add(int position) {
+
+        MessierObject object = this.objects.get(position);
+
+        for (String ngcicNumber : ngcicKeys(object.getNgcicNumber())) {
+            this.ngcicNumbers.computeIfAbsent(ngcicNumber, k -> new PositionList()).add(position);
+        }
+
+        for (String name : nameKeys(object)) {
+            this.commonNames.computeIfAbsent(name, k -> new PositionList()).add(position);
+        }
+    }
+
+    /**
+     * Move the positions to where packing the list put them.
+     *
+     * @param moved The new position of each old one, or -1 for a gap
+     */
+    void remap(int[] moved) {
+        this.ngcicNumbers.values().removeIf(positions -> !positions.remap(moved));
+        this.commonNames.values().removeIf(positions -> !positions.remap(moved));
+    }
+
+    /**
+     * Get the objects with an NGC/IC number, e.g. "NGC 1952". The quotes used in
+     * the database format are optional. Passing several numbers, as in "NGC 5194,
+     * NGC 5195", gets the objects listing all of them.
+     *
+     * @param ngcicNumber The NGC/IC number
+     * @return The objects, in the order they were added
+     */
+    public List<MessierObject> getByNgcicNumber(String ngcicNumber) {
+
+        List<String> keys = ngcicKeys(ngcicNumber);
+        PositionList positions = !keys.isEmpty() ? this.ngcicNumbers.get(keys.get(0)) : null;
+
+        if (positions == null) {
+            return new ArrayList<MessierObject>();
+        }
+
+        List<MessierObject> objects = positions.toList(this.objects);
+
+        if (keys.size() == 1) {
+            return objects;
+        }
+
+        List<MessierObject> matches = new ArrayList<MessierObject>();
+
+        for (MessierObject object : objects) {
+
+            if (ngcicKeys(object.getNgcicNumber()).containsAll(keys)) {
+                matches.add(object);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Get the objects with a common name starting with the prefix, in order of
+     * name. An object matching on more than one name is only returned once.
+     *
+     * @param prefix The start of the name
+     * @param limit  The most objects to return
+     * @return The objects
+     */
+    public List<MessierObject> getByNamePrefix(String prefix, int limit) {
+
+        String key = prefix.toLowerCase(Locale.ROOT);
+        List<MessierObject> objects = new ArrayList<MessierObject>();
+        Set<MessierObject> seen = Collections.newSetFromMap(new IdentityHashMap<MessierObject, Boolean>());
+
+        // Names sharing the prefix sort together, straight after the prefix
+        // itself.
+        for (Map.Entry<String, PositionList> entry : this.commonNames.tailMap(key, true).entrySet()) {
+
+            if (!entry.getKey().startsWith(key)) {
+                break;
+            }
+
+            for (MessierObject object : entry.getValue().toList(this.objects)) {
+
+                if (objects.size() >= limit) {
+                    return objects;
+                }
+
+                if (seen.add(object)) {
+                    objects.add(object);
+                }
+            }
+        }
+
+        return objects;
+    }
+
+    private static List<String> ngcicKeys(String ngcicNumber) {
+
+        List<String> keys = new ArrayList<String>();
+
+        if (ngcicNumber == null) {
+            return keys;
+        }
+
+        String field = ngcicNumber;
+
+        if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+            field = field.substring(1, field.length() - 1);
+        }
+
+        for (String number : field.split(numberSeparator)) {
+
+            String key = number.toLowerCase(Locale.ROOT);
+
+            // As with names, a repeated number would list the object twice.
+            if (!number.isEmpty() && !number.equals(placeholder) && !keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+
+        return keys;
+    }
+
+    private static List<String> nameKeys(MessierObject object) {
+
+        List<String> keys = new ArrayList<String>();
+        List<String> names = object.getCommonNames();
+
+        if (names != null) {
+
+            for (String name : names) {
+
+                String key = name.toLowerCase(Locale.ROOT);
+
+                // Twice the same name would otherwise list the object twice.
+                if (!name.equals(placeholder) && !keys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        return keys;
+    }
+}
@@ -0,0 +1,222 @@
+package src.MessierProgram;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds every pair of Messier Objects closer together than an angular
+ * distance.
+ *
+ * Unit vectors are copied once out of each object, so each candidate pair
+ * costs a dot product rather than a full angular distance. Objects are swept in order
+ * of declination, as two objects can be no closer than the difference in their
+ * declinations, and the sweep is split across cores with fork-join.
+ */
+public class PairFinder {
+
+    // Sweep positions handled by one task before it stops splitting.
+    private static final int taskThreshold = 256;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    // Catalogue indices ordered by declination, and their declinations.
+    private final int[] order;
+    private final double[] declinations;
+
+    /**
+     * Prepare the unit vectors and sweep order for the passed list.
+     * 
+     * @param objects The Messier Objects to pair up
+     */
+    public PairFinder(List<MessierObject> objects) {
+
+        int size = objects.size();
+
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.zs = new double[size];
+        this.order = new int[size];
+        this.declinations = new double[size];
+
+        for (int i = 0; i < size; i++) {
+
+            MessierObject object = objects.get(i);
+
+            this.xs[i] = object.getUnitX();
+            this.ys[i] = object.getUnitY();
+            this.zs[i] = object.getUnitZ();
+
+            this.order[i] = i;
+            this.declinations[i] = object.getDeclinationRadians();
+        }
+
+        sortByDeclination(0, size - 1);
+    }
+
+    /**
+     * Find every pair of objects within the passed angular distance of each
+     * other.
+     * 
+     * @param radius The angular distance in radians
+     * @return The pairs, ordered by first index and then second index
+     */
+    public PairList findPairsWithin(double radius) {
+
+        if (radius < 0 || this.order.length < 2) {
+            return new PairList(new int[0], new int[0], new double[0]);
+        }
+
+        // Dot products at or above this are within the radius. A little slack is
+        // left for rounding and the exact distance is checked afterwards.
+        double minimumDot = Math.cos(Math.min(radius, Math.PI)) - 1e-12;
+
+        long[] keys = new SweepTask(0, this.order.length, radius, minimumDot).invoke();
+
+        // Each key holds the lower index in the high half and the higher index in
+        // the low half, so sorting them orders the pairs.
+        Arrays.sort(keys);
+
+        int[] firstIndices = new int[keys.length];
+        int[] secondIndices = new int[keys.length];
+        double[] distances = new double[keys.length];
+        int count = 0;
+
+        for (long key : keys) {
+
+            int first = (int) (key >>> 32);
+            int second = (int) key;
+            double distance = Math.acos(Math.min(1, Math.max(-1, dot(first, second))));
+
+            if (distance <= radius) {
+                firstIndices[count] = first;
+                secondIndices[count] = second;
+                distances[count] = distance;
+                count++;
+            }
+        }
+
+        return new PairList(Arrays.copyOf(firstIndices, count), Arrays.copyOf(secondIndices, count),
+                Arrays.copyOf(distances, count));
+    }
+
+    private double dot(int i, int j) {
+        return this.xs[i] * this.xs[j] + this.ys[i] * this.ys[j] + this.zs[i] * this.zs[j];
+    }
+
+    /**
+     * Sweep a range of positions in declination order, pairing each with the
+     * positions after it until they are further away in declination than the
+     * radius.
+     */
+    private class SweepTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int low;
+        private final int high;
+        private final double radius;
+        private final double minimumDot;
+
+        SweepTask(int low, int high, double radius, double minimumDot) {
+
+            this.low = low;
+            this.high = high;
+            this.radius = radius;
+            this.minimumDot = minimumDot;
+        }
+
+        @Override
+        protected long[] compute() {
+
+            if (this.high - this.low > taskThreshold) {
+
+                int middle = (this.low + this.high) >>> 1;
+
+                SweepTask left = new SweepTask(this.low, middle, this.radius, this.minimumDot);
+                SweepTask right = new SweepTask(middle, this.high, this.radius, this.minimumDot);
+
+                left.fork();
+                long[] rightKeys = right.compute();
+                long[] leftKeys = left.join();
+
+                long[] keys = Arrays.copyOf(leftKeys, leftKeys.length + rightKeys.length);
+                System.arraycopy(rightKeys, 0, keys, leftKeys.length, rightKeys.length);
+
+                return keys;
+            }
+
+            long[] keys = new long[16];
+            int count = 0;
+
+            for (int p = this.low; p < this.high; p++) {
+
+                int i = order[p];
+
+                for (int q = p + 1; q < order.length && declinations[q] - declinations[p] <= this.radius; q++) {
+
+                    int j = order[q];
+
+                    if (dot(i, j) >= this.minimumDot) {
+
+                        if (count == keys.length) {
+                            keys = Arrays.copyOf(keys, count * 2);
+                        }
+
+                        keys[count++] = ((long) Math.min(i, j) << 32) | Math.max(i, j);
+                    }
+                }
+            }
+
+            return Arrays.copyOf(keys, count);
+        }
+    }
+
+    /* --------------------------------- Sorting -------------------------------- */
+
+    private void sortByDeclination(int left, int right) {
+
+        while (right > left) {
+
+            double pivot = this.declinations[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+
+            while (i <= j) {
+
+                while (this.declinations[i] < pivot) {
+                    i++;
+                }
+                while (this.declinations[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+
+            // Recurse into the smaller side to keep the stack shallow.
+            if (j - left < right - i) {
+                sortByDeclination(left, j);
+                left = i;
+
+            } else {
+                sortByDeclination(i, right);
+                right = j;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+
+        int index = this.order[i];
+        this.order[i] = this.order[j];
+        this.order[j] = index;
+
+        double declination = this.declinations[i];
+        this.declinations[i] = this.declinations[j];
+        this.declinations[j] = declination;
+    }
+}
@@ -0,0 +1,75 @@
+package src.MessierProgram;
+
+/**
+ * A compact list of pairs of Messier Objects, stored as list indices into the
+ * catalogue that produced it along with their angular distances.
+ */
+public class PairList {
+
+    private final int[] firstIndices;
+    private final int[] secondIndices;
+    private final double[] distances;
+
+    /**
+     * Constructor for pairs held in parallel arrays.
+     * 
+     * @param firstIndices  The index of the first object in each pair
+     * @param secondIndices The index of the second object in each pair
+     * @param distances     The angular distance of each pair in radians
+     */
+    public PairList(int[] firstIndices, int[] secondIndices, double[] distances) {
+
+        this.firstIndices = firstIndices;
+        this.secondIndices = secondIndices;
+        this.distances = distances;
+    }
+
+    /**
+     * Get the number of pairs.
+     * 
+     * @return The number of pairs
+     */
+    public int size() {
+        return this.distances.length;
+    }
+
+    /**
+     * See if there are no pairs.
+     * 
+     * @return Whether or not it is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Get the catalogue index of the first object in a pair. This is always the
+     * lower of the two indices.
+     * 
+     * @param pair The pair
+     * @return The index
+     */
+    public int getFirst(int pair) {
+        return this.firstIndices[pair];
+    }
+
+    /**
+     * Get the catalogue index of the second object in a pair.
+     * 
+     * @param pair The pair
+     * @return The index
+     */
+    public int getSecond(int pair) {
+        return this.secondIndices[pair];
+    }
+
+    /**
+     * Get the angular distance between the objects in a pair.
+     * 
+     * @param pair The pair
+     * @return The angular distance in radians
+     */
+    public double getDistance(int pair) {
+        return this.distances[pair];
+    }
+}
@@ -0,0 +1,465 @@
+package src.MessierProgram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, versioned Messier Catalogue. with and without return a new
+ * version and leave this one untouched, so a reader can hold on to a version
+ * for as long as it likes while updates land.
+ *
+ * Versions share structure rather than copying: the objects live in a 32-way
+ * trie of slots, and a hash array mapped trie maps each Messier number to its
+ * slots. A change copies only the handful of nodes on its path, so it costs
+ * O(log32 n) whatever the size of the catalogue.
+ *
+ * Removing an object empties its slot, keeping the order of the rest. Once
+ * more than half the slots are empty the next removal packs the survivors
+ * into a fresh trie.
+ */
+public class PersistentCatalogue implements Iterable<MessierObject> {
+
+    private static final int bits = 5;
+    private static final int width = 1 << bits;
+    private static final int mask = width - 1;
+
+    private static final PersistentCatalogue empty = new PersistentCatalogue(new Object[width], 0, 0, 0,
+            new MapNode(0, new Object[0]), 0);
+
+    // Trie of slots. Inner nodes hold child nodes, leaves hold Messier Objects,
+    // and removed objects leave a null.
+    private final Object[] root;
+    private final int shift;
+    private final int slotCount;
+
+    private final int size;
+    private final MapNode numbers;
+    private final long version;
+
+    private PersistentCatalogue(Object[] root, int shift, int slotCount, int size, MapNode numbers, long version) {
+
+        this.root = root;
+        this.shift = shift;
+        this.slotCount = slotCount;
+        this.size = size;
+        this.numbers = numbers;
+        this.version = version;
+    }
+
+    /**
+     * Get the empty catalogue.
+     *
+     * @return The catalogue
+     */
+    public static PersistentCatalogue empty() {
+        return empty;
+    }
+
+    /**
+     * Create a version holding the objects of a Messier Catalogue, in order.
+     *
+     * @param catalogue The catalogue
+     * @return The new version
+     */
+    public static PersistentCatalogue of(MessierCatalogue catalogue) {
+        return empty.withAll(catalogue.getList());
+    }
+
+    /* --------------------------- Making new versions --------------------------- */
+
+    /**
+     * Get a version with an object added to the end.
+     *
+     * @param messierObject The Messier Object
+     * @return The new version
+     */
+    public PersistentCatalogue with(MessierObject messierObject) {
+
+        Object[] root = this.root;
+        int shift = this.shift;
+
+        // Full, so grow the trie by a level.
+        if (this.slotCount == 1 << (shift + bits)) {
+            root = new Object[width];
+            root[0] = this.root;
+            shift += bits;
+        }
+
+        String key = messierObject.getMessierNumber();
+        int[] slots = slotsOf(key);
+        int[] added = Arrays.copyOf(slots, slots.length + 1);
+
+        added[slots.length] = this.slotCount;
+
+        return new PersistentCatalogue(set(root, shift, this.slotCount, messierObject), shift, this.slotCount + 1,
+                this.size + 1, putRoot(this.numbers, key, added), this.version + 1);
+    }
+
+    /**
+     * Get a version with several objects added to the end, in order.
+     *
+     * @param messierObjects The Messier Objects
+     * @return The new version
+     */
+    public PersistentCatalogue withAll(Iterable<MessierObject> messierObjects) {
+
+        PersistentCatalogue catalogue = this;
+
+        for (MessierObject messierObject : messierObjects) {
+            catalogue = catalogue.with(messierObject);
+        }
+
+        return catalogue;
+    }
+
+    /**
+     * Get a version without the first object with a Messier number.
+     *
+     * @param messierNumber The Messier number
+     * @return The new version
+     * @throws NoSuchElementException Thrown if the object is not found
+     */
+    public PersistentCatalogue without(String messierNumber) throws NoSuchElementException {
+
+        int[] slots = slotsOf(messierNumber);
+
+        if (slots.length == 0) {
+            throw new NoSuchElementException("Messier number: " + messierNumber + " does not exist.");
+        }
+
+        return withoutSlot(messierNumber, slots, 0);
+    }
+
+    /**
+     * Get a version without an object, by reference.
+     *
+     * @param messierObject The Messier Object
+     * @return The new version
+     * @throws NoSuchElementException Thrown if the object is not found
+     */
+    public PersistentCatalogue without(MessierObject messierObject) throws NoSuchElementException {
+
+        String key = messierObject.getMessierNumber();
+        int[] slots = slotsOf(key);
+
+        for (int i = 0; i < slots.length; i++) {
+
+            if (get(slots[i]) == messierObject) {
+                return withoutSlot(key, slots, i);
+            }
+        }
+
+        throw new NoSuchElementException("Messier Object: " + key + " is not in the catalogue.");
+    }
+
+    private PersistentCatalogue withoutSlot(String key, int[] slots, int index) {
+
+        int[] remaining = new int[slots.length - 1];
+
+        System.arraycopy(slots, 0, remaining, 0, index);
+        System.arraycopy(slots, index + 1, remaining, index, remaining.length - index);
+
+        PersistentCatalogue catalogue = new PersistentCatalogue(set(this.root, this.shift, slots[index], null),
+                this.shift, this.slotCount, this.size - 1, putRoot(this.numbers, key, remaining),
+                this.version + 1);
+
+        if (catalogue.slotCount - catalogue.size > catalogue.slotCount / 2 && catalogue.slotCount > width) {
+
+            PersistentCatalogue packed = empty.withAll(catalogue);
+
+            return new PersistentCatalogue(packed.root, packed.shift, packed.slotCount, packed.size,
+                    packed.numbers, catalogue.version);
+        }
+
+        return catalogue;
+    }
+
+    /* --------------------------------- Reading -------------------------------- */
+
+    /**
+     * Get the first Messier Object with the passed Messier number.
+     *
+     * @param messierNumber The Messier number
+     * @return The Messier Object
+     * @throws NoSuchElementException Thrown if the object is not found
+     */
+    public MessierObject getByMessierNumber(String messierNumber) throws NoSuchElementException {
+
+        int[] slots = slotsOf(messierNumber);
+
+        if (slots.length == 0) {
+            throw new NoSuchElementException("Messier number: " + messierNumber + " does not exist.");
+        }
+
+        return get(slots[0]);
+    }
+
+    public boolean contains(String messierNumber) {
+        return slotsOf(messierNumber).length != 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Get the version number, which goes up by one with every change.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Iterate over the objects in the order they were added.
+     *
+     * @return The iterator
+     */
+    public Iterator<MessierObject> iterator() {
+
+        return new Iterator<MessierObject>() {
+
+            private int slot = nextSlot(0);
+
+            public boolean hasNext() {
+                return this.slot < slotCount;
+            }
+
+            public MessierObject next() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                MessierObject object = get(this.slot);
+                this.slot = nextSlot(this.slot + 1);
+
+                return object;
+            }
+        };
+    }
+
+    /**
+     * Copy the objects into a new MessierCatalogue, for the queries and indexes
+     * it offers.
+     *
+     * @return The catalogue
+     */
+    public MessierCatalogue toCatalogue() {
+
+        List<MessierObject> objects = new ArrayList<MessierObject>(this.size);
+
+        for (MessierObject object : this) {
+            objects.add(object);
+        }
+
+        return new MessierCatalogue(objects.toArray(new MessierObject[0]));
+    }
+
+    /* -------------------------------- Slot trie ------------------------------- */
+
+    private MessierObject get(int slot) {
+
+        Object[] node = this.root;
+
+        for (int level = this.shift; level > 0; level -= bits) {
+            node = (Object[]) node[(slot >>> level) & mask];
+        }
+
+        return (MessierObject) node[slot & mask];
+    }
+
+    private int nextSlot(int slot) {
+
+        while (slot < this.slotCount && get(slot) == null) {
+            slot++;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Copy the path to a slot, with the slot set to the value.
+     */
+    private static Object[] set(Object[] node, int shift, int slot, MessierObject value) {
+
+        Object[] copy = node != null ? node.clone() : new Object[width];
+
+        if (shift == 0) {
+            copy[slot & mask] = value;
+
+        } else {
+            int child = (slot >>> shift) & mask;
+            copy[child] = set((Object[]) copy[child], shift - bits, slot, value);
+        }
+
+        return copy;
+    }
+
+    /* -------------------------------- Number map ------------------------------ */
+
+    private int[] slotsOf(String messierNumber) {
+
+        int hash = hash(messierNumber);
+        MapNode node = this.numbers;
+
+        for (int shift = 0;; shift += bits) {
+
+            int bit = 1 << ((hash >>> shift) & mask);
+
+            if ((node.bitmap & bit) == 0) {
+                return new int[0];
+            }
+
+            Object entry = node.entries[Integer.bitCount(node.bitmap & (bit - 1))];
+
+            if (entry instanceof MapNode) {
+                node = (MapNode) entry;
+                continue;
+            }
+
+            for (Leaf leaf = (Leaf) entry; leaf != null; leaf = leaf.next) {
+
+                if (leaf.hash == hash && leaf.key.equals(messierNumber)) {
+                    return leaf.slots;
+                }
+            }
+
+            return new int[0];
+        }
+    }
+
+    private static MapNode putRoot(MapNode root, String key, int[] slots) {
+
+        MapNode node = put(root, hash(key), 0, key, slots);
+
+        return node != null ? node : empty.numbers;
+    }
+
+    /**
+     * Copy the path to a key, with its slots replaced. An empty array removes the
+     * key.
+     *
+     * @return The new node, or null if it would be empty
+     */
+    private static MapNode put(MapNode node, int hash, int shift, String key, int[] slots) {
+
+        int bit = 1 << ((hash >>> shift) & mask);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+        if ((node.bitmap & bit) == 0) {
+
+            if (slots.length == 0) {
+                return node;
+            }
+
+            Object[] entries = new Object[node.entries.length + 1];
+
+            System.arraycopy(node.entries, 0, entries, 0, index);
+            entries[index] = new Leaf(hash, key, slots, null);
+            System.arraycopy(node.entries, index, entries, index + 1, node.entries.length - index);
+
+            return new MapNode(node.bitmap | bit, entries);
+        }
+
+        Object entry = node.entries[index];
+        Object replacement;
+
+        if (entry instanceof MapNode) {
+            replacement = put((MapNode) entry, hash, shift + bits, key, slots);
+
+        } else if (((Leaf) entry).hash == hash) {
+            replacement = putInChain((Leaf) entry, key, slots);
+
+        } else if (slots.length == 0) {
+            return node;
+
+        } else {
+            // Two hashes share this part, so push the leaf down a level. Different
+            // hashes always part before the bits run out.
+            Leaf leaf = (Leaf) entry;
+            MapNode child = new MapNode(1 << ((leaf.hash >>> (shift + bits)) & mask), new Object[] { leaf });
+
+            replacement = put(child, hash, shift + bits, key, slots);
+        }
+
+        if (replacement == null) {
+
+            if (node.entries.length == 1) {
+                return null;
+            }
+
+            Object[] entries = new Object[node.entries.length - 1];
+
+            System.arraycopy(node.entries, 0, entries, 0, index);
+            System.arraycopy(node.entries, index + 1, entries, index, entries.length - index);
+
+            return new MapNode(node.bitmap & ~bit, entries);
+        }
+
+        Object[] entries = node.entries.clone();
+        entries[index] = replacement;
+
+        return new MapNode(node.bitmap, entries);
+    }
+
+    /**
+     * Copy a chain of leaves sharing one hash, with a key's slots replaced.
+     *
+     * @return The new chain, or null if it would be empty
+     */
+    private static Leaf putInChain(Leaf chain, String key, int[] slots) {
+
+        if (chain == null) {
+            return slots.length != 0 ? new Leaf(hash(key), key, slots, null) : null;
+        }
+
+        if (chain.key.equals(key)) {
+            return slots.length != 0 ? new Leaf(chain.hash, key, slots, chain.next) : chain.next;
+        }
+
+        return new Leaf(chain.hash, chain.key, chain.slots, putInChain(chain.next, key, slots));
+    }
+
+    private static int hash(String key) {
+
+        int hash = key.hashCode();
+
+        // Spread the high bits down, as the trie reads the low bits first.
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class MapNode {
+
+        private final int bitmap;
+        private final Object[] entries;
+
+        private MapNode(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Leaf {
+
+        private final int hash;
+        private final String key;
+        private final int[] slots;
+        private final Leaf next;
+
+        private Leaf(int hash, String key, int[] slots, Leaf next) {
+            this.hash = hash;
+            this.key = key;
+            this.slots = slots;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package src.MessierProgram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A group of objects in one of a catalogue's indexes, held as their positions
+ * in the catalogue's list rather than as the objects themselves. Positions are
+ * added in list order, so they stay ascending.
+ *
+ * A removal only leaves a gap in the list, so it never has to search for the
+ * object in each group it's in. Positions that have become gaps are skipped
+ * when read, and dropped when the catalogue packs its list.
+ */
+class PositionList {
+
+    private int[] positions = new int[4];
+
+    // Positions before start are known to be gaps, so reads don't revisit them.
+    private int start;
+    private int end;
+
+    /**
+     * Add a position after the others.
+     *
+     * @param position The list position
+     */
+    void add(int position) {
+
+        if (this.end == this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions, this.end * 2);
+        }
+
+        this.positions[this.end++] = position;
+    }
+
+    /**
+     * Get the position of the first object that isn't a gap.
+     *
+     * @param objects The list the positions are in
+     * @return The position, or -1 if every one is a gap
+     */
+    int firstPosition(List<MessierObject> objects) {
+
+        while (this.start < this.end) {
+
+            int position = this.positions[this.start];
+
+            if (objects.get(position) != null) {
+                return position;
+            }
+
+            this.start++;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Get the first object that isn't a gap.
+     *
+     * @param objects The list the positions are in
+     * @return The object, or null if every one is a gap
+     */
+    MessierObject first(List<MessierObject> objects) {
+
+        int position = firstPosition(objects);
+
+        return position != -1 ? objects.get(position) : null;
+    }
+
+    /**
+     * Get the objects, skipping gaps, in list order.
+     *
+     * @param objects The list the positions are in
+     * @return A new list of the objects
+     */
+    List<MessierObject> toList(List<MessierObject> objects) {
+
+        List<MessierObject> group = new ArrayList<MessierObject>(this.end - this.start);
+
+        for (int i = this.start; i < this.end; i++) {
+
+            MessierObject object = objects.get(this.positions[i]);
+
+            if (object != null) {
+                group.add(object);
+            }
+        }
+
+        return group;
+    }
+
+    /**
+     * Stream the objects, skipping gaps, in list order.
+     *
+     * @param objects The list the positions are in
+     * @return The objects
+     */
+    Stream<MessierObject> stream(List<MessierObject> objects) {
+        return IntStream.range(this.start, this.end).mapToObj(i -> objects.get(this.positions[i]))
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Stream the positions, including any that have since become gaps.
+     *
+     * @return The positions, in list order
+     */
+    IntStream positions() {
+        return Arrays.stream(this.positions, this.start, this.end);
+    }
+
+    /**
+     * Move the positions to where packing the list put them.
+     *
+     * @param moved The new position of each old one, or -1 for a gap
+     * @return Whether any positions are left
+     */
+    boolean remap(int[] moved) {
+
+        int kept = 0;
+
+        for (int i = this.start; i < this.end; i++) {
+
+            int position = moved[this.positions[i]];
+
+            if (position != -1) {
+                this.positions[kept++] = position;
+            }
+        }
+
+        this.start = 0;
+        this.end = kept;
+
+        return kept != 0;
+    }
+}
@@ -0,0 +1,212 @@
+package src.MessierProgram;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A sorted index of Messier Objects on one of their numeric attributes.
+ *
+ * Objects with equal values are kept in the order they were added, so the
+ * index gives the same order as a stable sort of the list it was built from.
+ * It holds positions in that list, so gaps left there by removals are skipped
+ * rather than searched for and taken out.
+ */
+public class RangeIndex {
+
+    private final Attribute attribute;
+    private final List<MessierObject> objects;
+    private final TreeMap<Double, PositionList> index;
+
+    /**
+     * Build the index over the passed list, skipping any gaps.
+     * 
+     * @param objects   The Messier Objects to index, which the index reads from
+     * @param attribute The attribute to order them on
+     */
+    public RangeIndex(List<MessierObject> objects, Attribute attribute) {
+
+        this.attribute = attribute;
+        this.objects = objects;
+        this.index = new TreeMap<Double, PositionList>();
+
+        for (int i = 0; i < objects.size(); i++) {
+
+            if (objects.get(i) != null) {
+                add(i);
+            }
+        }
+    }
+
+    public Attribute getAttribute() {
+        return this.attribute;
+    }
+
+    /**
+     * Add the object at a list position after any others with the same value.
+     * 
+     * @param position The list position
+     */
+    void add(int position) {
+        this.index.computeIfAbsent(this.attribute.getValue(this.objects.get(position)), k -> new PositionList())
+                .add(position);
+    }
+
+    /**
+     * Move the positions to where packing the list put them.
+     * 
+     * @param moved The new position of each old one, or -1 for a gap
+     */
+    void remap(int[] moved) {
+        this.index.values().removeIf(positions -> !positions.remap(moved));
+    }
+
+    /**
+     * Get the first object with the lowest value.
+     * 
+     * @return The object, or null if the index is empty
+     */
+    public MessierObject lowest() {
+        return first(this.index);
+    }
+
+    /**
+     * Get the first object with the highest value.
+     * 
+     * @return The object, or null if the index is empty
+     */
+    public MessierObject highest() {
+        return first(this.index.descendingMap());
+    }
+
+    /**
+     * Get the objects with the n lowest values, lowest first.
+     * 
+     * @param n The number of objects
+     * @return The objects
+     */
+    public List<MessierObject> lowest(int n) {
+        return collect(this.index, n);
+    }
+
+    /**
+     * Get the objects with the n highest values, highest first.
+     * 
+     * @param n The number of objects
+     * @return The objects
+     */
+    public List<MessierObject> highest(int n) {
+        return collect(this.index.descendingMap(), n);
+    }
+
+    /**
+     * Get every object with a value between the bounds, inclusive, lowest first.
+     * 
+     * @param low  The lower bound
+     * @param high The upper bound
+     * @return The objects
+     */
+    public List<MessierObject> between(double low, double high) {
+
+        if (low > high) {
+            return new ArrayList<MessierObject>();
+        }
+
+        return collect(this.index.subMap(low, true, high, true), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Stream the objects with a value between the bounds, inclusive. Objects are
+     * produced as the stream is read, so a limited stream stops early.
+     * 
+     * @param low        The lower bound
+     * @param high       The upper bound
+     * @param descending Whether to start from the highest value
+     * @return The objects
+     */
+    public Stream<MessierObject> stream(double low, double high, boolean descending) {
+
+        if (low > high) {
+            return Stream.empty();
+        }
+
+        NavigableMap<Double, PositionList> range = this.index.subMap(low, true, high, true);
+
+        if (descending) {
+            range = range.descendingMap();
+        }
+
+        return range.values().stream().flatMap(positions -> positions.stream(this.objects));
+    }
+
+    /**
+     * Stream the objects with a value between the bounds, inclusive, in the order
+     * of the list the index was built from. The positions are sorted before any
+     * object is read, so the whole range is gathered up front.
+     * 
+     * @param low  The lower bound
+     * @param high The upper bound
+     * @return The objects
+     */
+    public Stream<MessierObject> streamInListOrder(double low, double high) {
+
+        if (low > high) {
+            return Stream.empty();
+        }
+
+        return this.index.subMap(low, true, high, true).values().stream().flatMapToInt(PositionList::positions)
+                .sorted().mapToObj(this.objects::get).filter(Objects::nonNull);
+    }
+
+    /**
+     * Get every object, lowest first.
+     * 
+     * @return The objects
+     */
+    public List<MessierObject> ascending() {
+        return collect(this.index, Integer.MAX_VALUE);
+    }
+
+    private MessierObject first(NavigableMap<Double, PositionList> map) {
+
+        Iterator<PositionList> groups = map.values().iterator();
+
+        while (groups.hasNext()) {
+
+            MessierObject object = groups.next().first(this.objects);
+
+            if (object != null) {
+                return object;
+            }
+
+            // Only gaps are left in the group, so drop it rather than skip it
+            // again on every read.
+            groups.remove();
+        }
+
+        return null;
+    }
+
+    private List<MessierObject> collect(NavigableMap<Double, PositionList> map, int limit) {
+
+        List<MessierObject> objects = new ArrayList<MessierObject>();
+
+        for (PositionList group : map.values()) {
+
+            for (MessierObject object : group.toList(this.objects)) {
+
+                if (objects.size() >= limit) {
+                    return objects;
+                }
+
+                objects.add(object);
+            }
+        }
+
+        return objects;
+    }
+}
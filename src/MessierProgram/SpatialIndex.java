@@ -0,0 +1,485 @@
+package src.MessierProgram;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A 3D k-d tree over the unit vectors of a list of Messier Objects, used to
+ * answer nearest neighbour and cone searches without scanning the whole
+ * catalogue.
+ *
+ * The tree stores indices into the list it was built from, so it must be
+ * rebuilt whenever that list changes.
+ */
+public class SpatialIndex {
+
+    private final List<MessierObject> objects;
+
+    // Unit vectors, indexed the same as the object list.
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    // Implicit tree: the node for the range [low, high) is at the middle of the
+    // range, and splits on axis (depth % 3).
+    private final int[] tree;
+
+    // Allowance for rounding when pruning with chord lengths, so that the tree
+    // never skips a candidate the linear scan would have picked.
+    private static final double pruneTolerance = 1e-12;
+
+    // Rounding leaves an object's dot product with itself a few ulps off 1, so
+    // anything closer than this counts as the same position.
+    private static final double samePositionTolerance = 1e-15;
+
+    /**
+     * Build the index over the passed list.
+     *
+     * @param objects The Messier Objects to index
+     */
+    public SpatialIndex(List<MessierObject> objects) {
+
+        this.objects = objects;
+
+        int size = objects.size();
+
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.zs = new double[size];
+        this.tree = new int[size];
+
+        for (int i = 0; i < size; i++) {
+
+            MessierObject object = objects.get(i);
+
+            this.xs[i] = object.getUnitX();
+            this.ys[i] = object.getUnitY();
+            this.zs[i] = object.getUnitZ();
+            this.tree[i] = i;
+        }
+
+        build(0, size, 0);
+    }
+
+    /**
+     * Get the number of indexed objects.
+     *
+     * @return The size of the index
+     */
+    public int size() {
+        return this.tree.length;
+    }
+
+    /**
+     * Find the object with the lowest non-zero angular distance to the passed
+     * object, measured through the dot product of their unit vectors. Ties go
+     * to the object that comes first in the indexed list, which matches a
+     * linear scan.
+     *
+     * @param object The object to be compared to
+     * @return The list index of the closest object, or -1 if there is none
+     */
+    public int nearest(MessierObject object) {
+
+        int[] closest = nearest(object, 1);
+
+        return closest.length == 0 ? -1 : closest[0];
+    }
+
+    /**
+     * Find the k objects with the lowest non-zero angular distance to the passed
+     * object, using a bounded heap so only k candidates are ever held.
+     *
+     * @param object The object to be compared to
+     * @param k      The number of objects to find
+     * @return The list indices of the closest objects, closest first
+     */
+    public int[] nearest(MessierObject object, int k) {
+
+        if (k <= 0) {
+            return new int[0];
+        }
+
+        Heap heap = new Heap(Math.min(k, size()));
+
+        double[] query = { object.getUnitX(), object.getUnitY(), object.getUnitZ() };
+
+        nearest(query, 0, size(), 0, heap);
+
+        return heap.drain();
+    }
+
+    /**
+     * Find every object within the passed angular distance of a position.
+     *
+     * @param rightAscension The right ascension of the centre in radians
+     * @param declination    The declination of the centre in radians
+     * @param radius         The angular radius in radians
+     * @return The list indices of the objects inside, closest first
+     */
+    public int[] withinRadius(double rightAscension, double declination, double radius) {
+
+        if (radius < 0 || size() == 0) {
+            return new int[0];
+        }
+
+        double[] query = unitVector(rightAscension, declination);
+        double[] centre = { rightAscension, declination, Math.sin(declination), Math.cos(declination) };
+        double chord = chord(radius);
+
+        // Collected unordered, then sorted on distance once at the end. The
+        // buffer grows with the hits, so a small cone costs little whatever the
+        // size of the index.
+        Hits hits = new Hits();
+
+        withinRadius(query, centre, radius, chord * chord, minimumDot(radius), 0, size(), 0, hits);
+
+        Heap heap = new Heap(hits.size);
+
+        for (int i = 0; i < hits.size; i++) {
+            heap.offer(hits.indices[i], hits.distances[i]);
+        }
+
+        return heap.drain();
+    }
+
+    /**
+     * See if the dot product of two unit vectors puts them at zero distance, by
+     * the same rule the nearest neighbour search uses to skip the query object.
+     *
+     * @param dot The dot product
+     * @return Whether or not they're at the same position
+     */
+    static boolean isSamePosition(double dot) {
+        return !(1 - dot > samePositionTolerance);
+    }
+
+    /**
+     * Get the lowest dot product of two unit vectors that could be within an
+     * angular distance of each other, less an allowance for rounding, so a
+     * filter on it never drops an object that the exact distance would keep.
+     *
+     * @param radius The angular distance in radians
+     * @return The dot product
+     */
+    static double minimumDot(double radius) {
+        return Math.cos(Math.min(radius, Math.PI)) - pruneTolerance;
+    }
+
+    /* -------------------------------- Building -------------------------------- */
+
+    private void build(int low, int high, int depth) {
+
+        if (high - low <= 1) {
+            return;
+        }
+
+        int middle = (low + high) >>> 1;
+
+        select(low, high - 1, middle, depth % 3);
+
+        build(low, middle, depth + 1);
+        build(middle + 1, high, depth + 1);
+    }
+
+    /**
+     * Partially order tree[left..right] so that the element at position k is the
+     * one that would be there if the range were sorted on the axis.
+     */
+    private void select(int left, int right, int k, int axis) {
+
+        while (right > left) {
+
+            double pivot = coordinate(this.tree[(left + right) >>> 1], axis);
+            int i = left;
+            int j = right;
+
+            while (i <= j) {
+
+                while (coordinate(this.tree[i], axis) < pivot) {
+                    i++;
+                }
+                while (coordinate(this.tree[j], axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+
+            if (k <= j) {
+                right = j;
+
+            } else if (k >= i) {
+                left = i;
+
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+
+        int temp = this.tree[i];
+        this.tree[i] = this.tree[j];
+        this.tree[j] = temp;
+    }
+
+    private double coordinate(int index, int axis) {
+
+        switch (axis) {
+            case 0:
+                return this.xs[index];
+            case 1:
+                return this.ys[index];
+            default:
+                return this.zs[index];
+        }
+    }
+
+    /* -------------------------------- Searching ------------------------------- */
+
+    private static double[] unitVector(double rightAscension, double declination) {
+
+        double cosDec = Math.cos(declination);
+
+        return new double[] { cosDec * Math.cos(rightAscension), cosDec * Math.sin(rightAscension),
+                Math.sin(declination) };
+    }
+
+    /**
+     * Straight line distance between two unit vectors separated by the angle.
+     */
+    private static double chord(double angle) {
+        return angle >= Math.PI ? 2 : 2 * Math.sin(angle / 2);
+    }
+
+    /**
+     * Gather the k nearest objects in a heap ranked on 1 - dot product, which is
+     * half the squared chord and orders objects as their angular distance would,
+     * so no acos is needed. Objects the dot product puts at zero distance, such
+     * as the query object itself, are skipped.
+     */
+    private void nearest(double[] query, int low, int high, int depth, Heap heap) {
+
+        if (high <= low) {
+            return;
+        }
+
+        int middle = (low + high) >>> 1;
+        int index = this.tree[middle];
+        double separation = 1 - (query[0] * this.xs[index] + query[1] * this.ys[index] + query[2] * this.zs[index]);
+
+        if (!isSamePosition(1 - separation)) {
+            heap.offer(index, separation);
+        }
+
+        if (high - low == 1) {
+            return;
+        }
+
+        int axis = depth % 3;
+        double offset = query[axis] - coordinate(index, axis);
+
+        // Search the side the query falls on first, as it most likely holds the
+        // closest objects and lets the far side be pruned.
+        if (offset < 0) {
+            nearest(query, low, middle, depth + 1, heap);
+
+            if (!heap.isFull() || mayContain(offset, 2 * heap.worstDistance())) {
+                nearest(query, middle + 1, high, depth + 1, heap);
+            }
+
+        } else {
+            nearest(query, middle + 1, high, depth + 1, heap);
+
+            if (!heap.isFull() || mayContain(offset, 2 * heap.worstDistance())) {
+                nearest(query, low, middle, depth + 1, heap);
+            }
+        }
+    }
+
+    private void withinRadius(double[] query, double[] centre, double radius, double chordSquared,
+            double minimumDot, int low, int high, int depth, Hits hits) {
+
+        if (high <= low) {
+            return;
+        }
+
+        int middle = (low + high) >>> 1;
+        int index = this.tree[middle];
+        double dot = query[0] * this.xs[index] + query[1] * this.ys[index] + query[2] * this.zs[index];
+
+        // The dot product rules out most objects before the exact distance,
+        // which reads the object's cached trig so that it matches
+        // calcAngularDistance.
+        if (dot >= minimumDot) {
+
+            double angularDistance = this.objects.get(index).calcAngularDistanceTo(centre[0], centre[1], centre[2],
+                    centre[3]);
+
+            if (angularDistance <= radius) {
+                hits.add(index, angularDistance);
+            }
+        }
+
+        if (high - low == 1) {
+            return;
+        }
+
+        int axis = depth % 3;
+        double offset = query[axis] - coordinate(index, axis);
+        boolean inReach = offset * offset <= chordSquared + pruneTolerance;
+
+        // Only the far side of the split can be ruled out.
+        if (offset < 0 || inReach) {
+            withinRadius(query, centre, radius, chordSquared, minimumDot, low, middle, depth + 1, hits);
+        }
+        if (offset >= 0 || inReach) {
+            withinRadius(query, centre, radius, chordSquared, minimumDot, middle + 1, high, depth + 1, hits);
+        }
+    }
+
+    private static boolean mayContain(double offset, double chordSquared) {
+        return offset * offset <= chordSquared + pruneTolerance;
+    }
+
+    /**
+     * Growable buffer of (list index, distance) pairs.
+     */
+    private static class Hits {
+
+        private int[] indices = new int[16];
+        private double[] distances = new double[16];
+        private int size;
+
+        void add(int index, double distance) {
+
+            if (this.size == this.indices.length) {
+                this.indices = Arrays.copyOf(this.indices, this.size * 2);
+                this.distances = Arrays.copyOf(this.distances, this.size * 2);
+            }
+
+            this.indices[this.size] = index;
+            this.distances[this.size] = distance;
+            this.size++;
+        }
+    }
+
+    /**
+     * Bounded max-heap of (list index, distance) pairs, ordered so the root is
+     * the furthest candidate. Equal distances are ordered by list index, so the
+     * earlier object is kept, as a linear scan would.
+     */
+    private static class Heap {
+
+        private final int[] indices;
+        private final double[] distances;
+        private int size;
+
+        Heap(int capacity) {
+            this.indices = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        boolean isFull() {
+            return this.size == this.indices.length;
+        }
+
+        double worstDistance() {
+            return this.distances[0];
+        }
+
+        void offer(int index, double distance) {
+
+            if (this.indices.length == 0) {
+                return;
+            }
+
+            if (!isFull()) {
+                this.indices[this.size] = index;
+                this.distances[this.size] = distance;
+                siftUp(this.size++);
+
+            } else if (isWorse(this.indices[0], this.distances[0], index, distance)) {
+                this.indices[0] = index;
+                this.distances[0] = distance;
+                siftDown(0, this.size);
+            }
+        }
+
+        /**
+         * Empty the heap into an array, closest first.
+         */
+        int[] drain() {
+
+            int[] sorted = new int[this.size];
+
+            for (int end = this.size - 1; end >= 0; end--) {
+                sorted[end] = this.indices[0];
+                swap(0, end);
+                siftDown(0, end);
+            }
+
+            this.size = 0;
+            return sorted;
+        }
+
+        private static boolean isWorse(int index1, double distance1, int index2, double distance2) {
+            return distance1 > distance2 || (distance1 == distance2 && index1 > index2);
+        }
+
+        private void siftUp(int position) {
+
+            while (position > 0) {
+
+                int parent = (position - 1) / 2;
+
+                if (!isWorse(this.indices[position], this.distances[position], this.indices[parent],
+                        this.distances[parent])) {
+                    return;
+                }
+
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position, int end) {
+
+            while (true) {
+
+                int worst = position;
+                int left = 2 * position + 1;
+                int right = left + 1;
+
+                if (left < end && isWorse(this.indices[left], this.distances[left], this.indices[worst],
+                        this.distances[worst])) {
+                    worst = left;
+                }
+                if (right < end && isWorse(this.indices[right], this.distances[right], this.indices[worst],
+                        this.distances[worst])) {
+                    worst = right;
+                }
+                if (worst == position) {
+                    return;
+                }
+
+                swap(position, worst);
+                position = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+
+            int index = this.indices[i];
+            this.indices[i] = this.indices[j];
+            this.indices[j] = index;
+
+            double distance = this.distances[i];
+            this.distances[i] = this.distances[j];
+            this.distances[j] = distance;
+        }
+    }
+}
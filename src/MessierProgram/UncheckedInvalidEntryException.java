@@ -0,0 +1,19 @@
+package src.MessierProgram;
+
+/**
+ * Wraps an InvalidEntryException so it can be thrown from an Iterator or
+ * Stream, in the same way as java.io.UncheckedIOException.
+ */
+public class UncheckedInvalidEntryException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedInvalidEntryException(InvalidEntryException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public InvalidEntryException getCause() {
+        return (InvalidEntryException) super.getCause();
+    }
+}
@@ -0,0 +1,113 @@
+package src.tests;
+
+import java.util.Random;
+
+import src.MessierProgram.AngularDistanceFormula;
+
+public class AngularDistanceBenchmark {
+
+    /* -------------------------------- Benchmark ------------------------------- */
+    // A hand-rolled stand-in for JMH, which would need a build tool this project
+    // doesn't use. Each formula gets warmed up before it's timed, and results are
+    // summed into a sink so the JIT can't drop the work.
+
+    private static final int pointCount = 1 << 16;
+    private static final int warmupRounds = 20;
+    private static final int measuredRounds = 50;
+
+    private static double sink;
+
+    public static void main(String[] args) {
+
+        double[] rightAscensions = new double[pointCount];
+        double[] declinations = new double[pointCount];
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < pointCount; i++) {
+            rightAscensions[i] = random.nextDouble() * 2 * Math.PI;
+            declinations[i] = Math.asin(2 * random.nextDouble() - 1);
+        }
+
+        System.out.println("Throughput over " + pointCount + " random pairs:");
+
+        for (AngularDistanceFormula formula : AngularDistanceFormula.values()) {
+            System.out.printf("%-16s %8.2f ns/op%n", formula, timeFormula(formula, rightAscensions, declinations));
+        }
+
+        System.out.println("\nWorst relative error against the true separation:");
+        System.out.printf("%-16s %12s %12s %12s%n", "", "1 arcsec", "8 arcmin", "179 deg");
+
+        for (AngularDistanceFormula formula : AngularDistanceFormula.values()) {
+            System.out.printf("%-16s %12.3e %12.3e %12.3e%n", formula,
+                    worstError(formula, Math.toRadians(1.0 / 3600)), worstError(formula, Math.toRadians(8.0 / 60)),
+                    worstError(formula, Math.toRadians(179)));
+        }
+
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Time a formula over consecutive pairs of the passed points.
+     *
+     * @return The mean time per call in nanoseconds
+     */
+    private static double timeFormula(AngularDistanceFormula formula, double[] rightAscensions,
+            double[] declinations) {
+
+        for (int round = 0; round < warmupRounds; round++) {
+            sink += runFormula(formula, rightAscensions, declinations);
+        }
+
+        long start = System.nanoTime();
+
+        for (int round = 0; round < measuredRounds; round++) {
+            sink += runFormula(formula, rightAscensions, declinations);
+        }
+
+        return (System.nanoTime() - start) / (double) (measuredRounds * (pointCount - 1));
+    }
+
+    private static double runFormula(AngularDistanceFormula formula, double[] rightAscensions,
+            double[] declinations) {
+
+        double total = 0;
+
+        for (int i = 1; i < pointCount; i++) {
+            total += formula.calculate(rightAscensions[i - 1], declinations[i - 1], rightAscensions[i],
+                    declinations[i]);
+        }
+
+        return total;
+    }
+
+    /**
+     * Measure the worst relative error of a formula for pairs of points a known
+     * distance apart along a line of right ascension.
+     *
+     * @return The worst relative error
+     */
+    private static double worstError(AngularDistanceFormula formula, double separation) {
+
+        Random random = new Random(7);
+        double worst = 0;
+
+        for (int i = 0; i < 10000; i++) {
+
+            double rightAscension = random.nextDouble() * 2 * Math.PI;
+            double declination = -Math.PI / 2 + random.nextDouble() * (Math.PI - separation);
+
+            double otherDeclination = declination + separation;
+
+            // The separation actually represented once rounded to doubles.
+            double expected = otherDeclination - declination;
+            double distance = formula.calculate(rightAscension, declination, rightAscension, otherDeclination);
+
+            worst = Math.max(worst, Math.abs(distance - expected) / expected);
+        }
+
+        return worst;
+    }
+}
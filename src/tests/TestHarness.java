@@ -1,13 +1,38 @@
 package src.tests;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Constructor;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Stream;
 
+import src.MessierProgram.AngularDistanceFormula;
+import src.MessierProgram.Attribute;
+import src.MessierProgram.CatalogueLoader;
+import src.MessierProgram.CatalogueSnapshot;
+import src.MessierProgram.CatalogueQuery;
+import src.MessierProgram.ColumnarCatalogue;
+import src.MessierProgram.ConcurrentCatalogue;
+import src.MessierProgram.EntryFormatter;
+import src.MessierProgram.FieldDictionary;
 import src.MessierProgram.IOHandler;
 import src.MessierProgram.InvalidEntryException;
+import src.MessierProgram.LoadReport;
 import src.MessierProgram.MessierCatalogue;
 import src.MessierProgram.MessierObject;
+import src.MessierProgram.PairList;
+import src.MessierProgram.PersistentCatalogue;
 
 public class TestHarness {
 
@@ -53,6 +78,90 @@ public class TestHarness {
             System.out.println("Valid case " + i + ": PASSED");
         }
 
+        // Cached unit vectors must follow the position setters
+        try {
+            MessierObject first = new MessierObject(validStringData[0]);
+            MessierObject second = new MessierObject(validStringData[1]);
+
+            second.setDeclinationRadians(second.getDeclinationRadians() + 0.1);
+
+            if (Math.abs(first.calcCosAngularDistance(second) - Math.cos(first.calcAngularDistance(second))) > 1e-12) {
+                System.err.println("Unit vector case: FAILED");
+                return false;
+            }
+
+            for (AngularDistanceFormula formula : AngularDistanceFormula.values()) {
+
+                if (Math.abs(first.calcAngularDistance(second, formula) - first.calcAngularDistance(second)) > 1e-9) {
+                    System.err.println("Angular distance case " + formula + ": FAILED");
+                    return false;
+                }
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("Unit vector case: FAILED");
+            return false;
+        }
+
+        // The hand-written parser must split and convert as the regex did
+        try {
+            MessierObject obj = new MessierObject(validStringData[0]);
+
+            obj.setCommonNames("\"Crab, Taurus A, or Tau X-1\"");
+            obj.setDeclinationAngle("-16° 10' 36.0000\"");
+
+            if (!obj.getCommonNames().equals(Arrays.asList("Crab", "Taurus A", "Tau X-1"))
+                    || obj.getDeclinationRadians() != Math.toRadians(-16.0 + (10.0 / 60) + (36.0 / 3600))) {
+                System.err.println("Parser case: FAILED");
+                return false;
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("Parser case: FAILED");
+            return false;
+        }
+
+        // Lazily split names must follow whichever setter ran last
+        try {
+            MessierObject obj = new MessierObject(validStringData[0]);
+
+            obj.setCommonNames(Arrays.asList("Crab"));
+            List<String> set = obj.getCommonNames();
+            obj.setCommonNames("\"Taurus A or Tau X-1\"");
+
+            if (!set.equals(Arrays.asList("Crab"))
+                    || !obj.getCommonNames().equals(Arrays.asList("Taurus A", "Tau X-1"))
+                    || obj.getCommonNames() != obj.getCommonNames()) {
+                System.err.println("Lazy names case: FAILED");
+                return false;
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("Lazy names case: FAILED");
+            return false;
+        }
+
+        // Types and constellations must share one instance through the dictionary
+        try {
+            MessierObject first = new MessierObject(validStringData[0]);
+            MessierObject second = new MessierObject(validStringData[0]);
+
+            if (first.getType() != second.getType() || first.getTypeId() != second.getTypeId()
+                    || first.getConstellation() != second.getConstellation()
+                    || FieldDictionary.types.idOf("Not a type") != FieldDictionary.absentId) {
+                System.err.println("Dictionary case: FAILED");
+                return false;
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("Dictionary case: FAILED");
+            return false;
+        }
+
         // Erroneous test data
         for (int i = 0; i < invalidStringData.length; i++) {
 
@@ -112,10 +221,620 @@ public class TestHarness {
             }
         }
 
+        // The indexed closest object must match a linear scan
+        MessierCatalogue catalogue = new MessierCatalogue(validObjects);
+
+        for (int i = 0; i < validObjects.length; i++) {
+
+            MessierObject expected = validObjects[0];
+            double shortestAngularDistance = Double.POSITIVE_INFINITY;
+
+            for (MessierObject object : validObjects) {
+
+                double angularDistance = validObjects[i].calcAngularDistance(object);
+
+                if (angularDistance != 0 && angularDistance < shortestAngularDistance) {
+                    shortestAngularDistance = angularDistance;
+                    expected = object;
+                }
+            }
+
+            if (catalogue.getClosest(validObjects[i]) != expected) {
+                System.err.println("Closest case " + i + ": FAILED");
+                return false;
+            }
+
+            if (catalogue.getKNearest(validObjects[i], 1).get(0) != expected
+                    || !catalogue.getWithinRadius(validObjects[i], shortestAngularDistance).getList()
+                            .equals(Arrays.asList(expected))) {
+                System.err.println("Nearest neighbour case " + i + ": FAILED");
+                return false;
+            }
+        }
+
+        // A copy at the same position is skipped by kNN and cone search alike
+        try {
+            MessierCatalogue twins = new MessierCatalogue(validObjects);
+            twins.add(new MessierObject(validStringData[0]));
+
+            if (twins.getKNearest(validObjects[0], 1).get(0) == twins.get(validObjects.length)
+                    || twins.getWithinRadius(validObjects[0], 1e-6).size() != 0) {
+                System.err.println("Zero distance case: FAILED");
+                return false;
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("Zero distance case: FAILED");
+            return false;
+        }
+
+        // Lookups must follow adds, and filters must be read-only
+        try {
+            MessierCatalogue lookups = new MessierCatalogue();
+            lookups.add(validObjects[0]);
+
+            int globularCount = lookups.getByType("Globular cluster").size();
+            lookups.add(validObjects[1]);
+
+            // Views are snapshots, so they stay as they were when taken
+            MessierCatalogue taurus = lookups.getByConstellation("Taurus");
+            lookups.add(validObjects[0]);
+
+            if (globularCount != 0 || taurus.size() != 1 || lookups.getByConstellation("Taurus").size() != 2) {
+                System.err.println("View snapshot case: FAILED");
+                return false;
+            }
+
+            lookups.removeByReference(validObjects[0]);
+
+            if (lookups.getByType("Globular cluster").get(0) != validObjects[1]
+                    || lookups.getByMessierNumber("M2") != validObjects[1]
+                    || lookups.getByConstellation("Taurus").size() != 1) {
+                System.err.println("Lookup case: FAILED");
+                return false;
+            }
+
+            lookups.getByType("Globular cluster").add(validObjects[2]);
+
+            System.err.println("Read-only view case: FAILED");
+            return false;
+
+        } catch (UnsupportedOperationException exception) {
+            System.err.println("Read-only view case: PASSED");
+        }
+
+        // Range indexes must agree with sort, without reordering the list
+        MessierCatalogue sorted = new MessierCatalogue(validObjects);
+        sorted.sort();
+
+        if (!catalogue.getSorted(Attribute.APPARENT_MAGNITUDE).getList().equals(sorted.getList())
+                || catalogue.get(0) != validObjects[0]
+                || catalogue.getLowest(Attribute.APPARENT_MAGNITUDE) != sorted.get(0)
+                || catalogue.magnitudeBetween(6.0, 6.5).size() != 2) {
+            System.err.println("Range index case: FAILED");
+            return false;
+        }
+
+        // Queries must use the most selective index and match the filters
+        CatalogueQuery query = catalogue.query().type("Globular cluster").magnitudeBelow(7);
+
+        if (query.first() != validObjects[1] || !query.explain().startsWith("index: type")
+                || catalogue.query().constellation("Sagittarius").type("Spiral galaxy").count() != 0) {
+            System.err.println("Query case: FAILED");
+            return false;
+        }
+
+        // Name lookups must ignore case, and list each object once in name order
+        if (catalogue.getByNgcicNumber("ngc 1952").get(0) != validObjects[0]
+                || !catalogue.getByNamePrefix("C", 10).getList()
+                        .equals(Arrays.asList(validObjects[3], validObjects[2], validObjects[0]))
+                || catalogue.getByNamePrefix("C", 1).size() != 1 || !catalogue.getByNamePrefix("-", 10).isEmpty()) {
+            System.err.println("Name index case: FAILED");
+            return false;
+        }
+
+        // An object with several NGC/IC numbers must be found by each of them
+        try {
+            MessierCatalogue named = new MessierCatalogue(validObjects);
+            MessierObject whirlpool = new MessierObject("M51, \"NGC 5194, NGC 5195\", \"Whirlpool Galaxy\", "
+                    + "Spiral galaxy, 19000.0-27000.0, Canes Venatici, 8.4, 13h 29m 52.7000s, 47° 11' 43.0000\"");
+
+            named.add(whirlpool);
+
+            if (!named.getByNgcicNumber("NGC 5194").getList().equals(Arrays.asList(whirlpool))
+                    || !named.getByNgcicNumber("NGC 5195").getList().equals(Arrays.asList(whirlpool))
+                    || named.getByNgcicNumber("\"NGC 5194, NGC 5195\"").size() != 1) {
+                System.err.println("Multiple NGC/IC numbers case: FAILED");
+                return false;
+            }
+
+            named.removeByReference(whirlpool);
+
+            if (!named.getByNgcicNumber("NGC 5195").isEmpty()) {
+                System.err.println("Multiple NGC/IC numbers case: FAILED");
+                return false;
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("Multiple NGC/IC numbers case: FAILED");
+            return false;
+        }
+
+        // Batched changes must leave the lookups as if made one at a time
+        try {
+            MessierCatalogue batched = new MessierCatalogue(validObjects);
+            int spiralCount = batched.getByType("Spiral galaxy").size();
+
+            // A lookup inside the batch builds an index that later changes in
+            // the batch must keep up to date
+            batched.beginBatch();
+            batched.addAll(Arrays.asList(validObjects[3], validObjects[3]));
+            batched.getByType("Spiral galaxy");
+            batched.add(validObjects[3]);
+            batched.commit();
+            batched.removeAll(Arrays.asList(validObjects[0], validObjects[3], validObjects[3]));
+
+            if (batched.getByType("Spiral galaxy").size() != spiralCount + 1
+                    || batched.getByConstellation("Taurus").size() != 0 || batched.size() != validObjects.length) {
+                System.err.println("Batch case: FAILED");
+                return false;
+            }
+
+            // Removals inside a batch must find objects moved by removeAll
+            batched.beginBatch();
+            batched.removeAll(Arrays.asList(validObjects[1]));
+            batched.removeByReference(validObjects[3]);
+            batched.removeByNumber("M17");
+            batched.commit();
+
+            if (!batched.getList().equals(Arrays.asList(validObjects[3]))
+                    || batched.getByMessierNumber("M94") != validObjects[3]) {
+                System.err.println("Batch removal case: FAILED");
+                return false;
+            }
+
+            batched.add(validObjects[1]);
+            batched.removeAll(Arrays.asList(validObjects[1], validObjects[0]));
+
+            System.err.println("Batch missing object case: FAILED");
+            return false;
+
+        } catch (NoSuchElementException exception) {
+            System.err.println("Batch missing object case: PASSED");
+        }
+
+        // Removals must only throw when the object is missing, and keep the order
+        try {
+            MessierCatalogue removing = new MessierCatalogue(validObjects);
+            removing.add(validObjects[3]);
+
+            // A list held across removals must never show their gaps
+            List<MessierObject> held = removing.getList();
+
+            removing.removeByNumber("M2");
+            removing.removeByReference(validObjects[3]);
+
+            if (held.get(1) != validObjects[2] || held.contains(null)
+                    || removing.size() != validObjects.length - 1 || removing.getByMessierNumber("M94") != validObjects[3]
+                    || removing.getByType("Globular cluster").size() != 0
+                    || !removing.getList().equals(Arrays.asList(validObjects[0], validObjects[2], validObjects[3]))) {
+                System.err.println("Removal case: FAILED");
+                return false;
+            }
+
+            removing.removeByReference(validObjects[3]);
+            removing.removeByNumber("M94");
+
+            System.err.println("Removal case: FAILED");
+            return false;
+
+        } catch (NoSuchElementException exception) {
+            System.err.println("Removal case: PASSED");
+        }
+
+        // Indexes must skip the gaps removals leave, and keep copies of an object
+        // in list order
+        MessierCatalogue copies = new MessierCatalogue(validObjects);
+
+        copies.add(validObjects[1]);
+        copies.getSorted(Attribute.APPARENT_MAGNITUDE);
+
+        if (!copies.query().magnitudeBelow(8.3).list()
+                .equals(Arrays.asList(validObjects[1], validObjects[2], validObjects[3], validObjects[1]))) {
+            System.err.println("Indexed removal case: FAILED");
+            return false;
+        }
+
+        copies.removeByReference(validObjects[1]);
+
+        if (copies.get(3) != validObjects[1] || copies.getByType("Globular cluster").size() != 1
+                || copies.getSorted(Attribute.APPARENT_MAGNITUDE).size() != validObjects.length
+                || !copies.query().magnitudeBelow(8.3).list()
+                        .equals(Arrays.asList(validObjects[2], validObjects[3], validObjects[1]))) {
+            System.err.println("Indexed removal case: FAILED");
+            return false;
+        }
+
+        // Statistics must agree with the queries, and follow adds and removes
+        MessierCatalogue counted = new MessierCatalogue(validObjects);
+        String globular = validObjects[1].getType();
+
+        for (MessierObject object : validObjects) {
+
+            if (counted.getTypeStatistics(object.getType()).getMean(Attribute.APPARENT_MAGNITUDE) != counted.query()
+                    .type(object.getType()).average(Attribute.APPARENT_MAGNITUDE)
+                    || counted.getConstellationStatistics(object.getConstellation())
+                            .getLowest(Attribute.DECLINATION) != object) {
+                System.err.println("Statistics case: FAILED");
+                return false;
+            }
+        }
+
+        counted.add(validObjects[1]);
+        counted.removeByReference(validObjects[1]);
+
+        if (counted.getTypeStatistics(globular).getCount() != 1
+                || counted.getTypeStatistics(globular).getHighest(Attribute.LOWEST_DISTANCE) != validObjects[1]) {
+            System.err.println("Statistics case: FAILED");
+            return false;
+        }
+
+        counted.removeByNumber("M2");
+
+        if (counted.getTypeStatistics(globular).getCount() != 0
+                || !Double.isNaN(counted.getTypeStatistics(globular).getMean(Attribute.APPARENT_MAGNITUDE))
+                || counted.getTypeStatistics(globular).getHighest(Attribute.LOWEST_DISTANCE) != null) {
+            System.err.println("Statistics case: FAILED");
+            return false;
+        }
+
+        // Every pair is within 180°, and none are within 0°
+        int pairCount = validObjects.length * (validObjects.length - 1) / 2;
+
+        if (catalogue.findPairsWithin(Math.PI).size() != pairCount || !catalogue.findPairsWithin(0).isEmpty()) {
+            System.err.println("Pairs case: FAILED");
+            return false;
+        }
+
+        // Enough objects to split the sweep across tasks must still match a
+        // brute force check of every pair
+        try {
+            MessierCatalogue scattered = new MessierCatalogue();
+            Random random = new Random(42);
+
+            for (int i = 0; i < 300; i++) {
+
+                MessierObject object = new MessierObject(validStringData[i % validStringData.length]);
+
+                object.setRightAscensionRadians(random.nextDouble() * 2 * Math.PI);
+                object.setDeclinationRadians(Math.asin(2 * random.nextDouble() - 1));
+                scattered.add(object);
+            }
+
+            for (double radius : new double[] { 0.05, 0.3 }) {
+
+                PairList pairs = scattered.findPairsWithin(radius);
+                int pair = 0;
+
+                for (int i = 0; i < scattered.size(); i++) {
+
+                    for (int j = i + 1; j < scattered.size(); j++) {
+
+                        MessierObject first = scattered.get(i);
+                        MessierObject second = scattered.get(j);
+                        double dot = first.getUnitX() * second.getUnitX() + first.getUnitY() * second.getUnitY()
+                                + first.getUnitZ() * second.getUnitZ();
+
+                        if (Math.acos(Math.min(1, Math.max(-1, dot))) > radius) {
+                            continue;
+                        }
+
+                        if (pair >= pairs.size() || pairs.getFirst(pair) != i || pairs.getSecond(pair) != j) {
+                            System.err.println("Swept pairs case " + radius + ": FAILED");
+                            return false;
+                        }
+
+                        pair++;
+                    }
+                }
+
+                if (pair != pairs.size() || pair == 0) {
+                    System.err.println("Swept pairs case " + radius + ": FAILED");
+                    return false;
+                }
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("Swept pairs case: FAILED");
+            return false;
+        }
+
+        // Streamed output must match toString, and the dataset it came from
+        StringWriter writer = new StringWriter();
+        ByteBuffer bytes = ByteBuffer.allocate(4096);
+
+        try {
+            catalogue.writeTo(writer);
+            catalogue.writeTo(bytes);
+
+        } catch (IOException exception) {
+            exception.printStackTrace();
+            System.err.println("Writer case: FAILED");
+            return false;
+        }
+
+        if (!writer.toString().equals(catalogue.toString())
+                || !new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8).equals(writer.toString())
+                || !writer.toString().equals(String.join("\n", validStringData))) {
+            System.err.println("Writer case: FAILED");
+            return false;
+        }
+
+        // One entry must encode as toString does, and not fit in too little room
+        MessierObject object = catalogue.getList().get(0);
+        byte[] expected = object.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(expected.length);
+
+        EntryFormatter.writeEntry(object, entry);
+
+        try {
+            EntryFormatter.writeEntry(object, ByteBuffer.allocate(expected.length - 1));
+
+            System.err.println("Entry buffer case: FAILED");
+            return false;
+
+        } catch (BufferOverflowException exception) {
+
+            if (!Arrays.equals(entry.array(), expected)) {
+                System.err.println("Entry buffer case: FAILED");
+                return false;
+            }
+        }
+
         System.out.println(" -- testMessierCatalogue: PASSED -- \n");
         return true;
     }
 
+    /**
+     * Testing ColumnarCatalogue.
+     * 
+     * @param validStringData A valid set of messier object entries
+     * @return Test result
+     */
+    public static boolean testColumnarCatalogue(String[] validStringData) {
+
+        MessierCatalogue catalogue = new MessierCatalogue();
+
+        try {
+            for (String entry : validStringData) {
+                catalogue.add(new MessierObject(entry));
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("FAILED TO CREATE OBJECT");
+            return false;
+        }
+
+        ColumnarCatalogue columnar = new ColumnarCatalogue(catalogue);
+
+        // Rows must read back exactly as they went in
+        if (!columnar.toString().equals(catalogue.toString())) {
+            System.err.println("Round trip case: FAILED");
+            return false;
+        }
+
+        ColumnarCatalogue sagittarius = columnar.getByConstellation("Sagittarius");
+
+        if (sagittarius.size() != 1 || !sagittarius.getRow(0).getMessierNumber().equals("M17")
+                || columnar.average(Attribute.APPARENT_MAGNITUDE) != catalogue.query()
+                        .average(Attribute.APPARENT_MAGNITUDE)
+                || !columnar.getByType("Nothing").isEmpty()) {
+            System.err.println("Filter case: FAILED");
+            return false;
+        }
+
+        // Lookups, proximity and sort must agree with MessierCatalogue
+        for (MessierObject object : catalogue.getList()) {
+
+            if (!columnar.getByMessierNumber(object.getMessierNumber()).toString().equals(object.toString())
+                    || !columnar.getClosest(object).toString().equals(catalogue.getClosest(object).toString())
+                    || !columnar.getKNearest(object, 2).toString()
+                            .equals(catalogue.getKNearest(object, 2).toString())
+                    || !columnar.getWithinRadius(object, Math.PI).toString()
+                            .equals(catalogue.getWithinRadius(object, Math.PI).toString())
+                    || !columnar.getWithinRadius(object.getRightAscensionRadians(), 0, 1).toString()
+                            .equals(catalogue.getWithinRadius(object.getRightAscensionRadians(), 0, 1).toString())) {
+                System.err.println("Columnar lookup case: FAILED");
+                return false;
+            }
+        }
+
+        // Reads of a row must share one object
+        if (columnar.get(0) != columnar.getList().get(0)) {
+            System.err.println("Columnar object reuse case: FAILED");
+            return false;
+        }
+
+        MessierCatalogue sorted = new MessierCatalogue(catalogue.getList().toArray(new MessierObject[0]));
+        sorted.sort();
+        columnar.sort();
+
+        if (!columnar.toString().equals(sorted.toString()) || !sagittarius.getRow(0).getMessierNumber().equals("M17")) {
+            System.err.println("Columnar sort case: FAILED");
+            return false;
+        }
+
+        // Removal must drop only the first row with the number
+        try {
+            columnar.removeByNumber("M17");
+            sorted.removeByNumber("M17");
+
+            if (columnar.size() != validStringData.length - 1 || columnar.indexOf("M17") != -1
+                    || !columnar.getList().toString().equals(sorted.getList().toString())) {
+                System.err.println("Columnar removal case: FAILED");
+                return false;
+            }
+
+            columnar.removeByNumber("M17");
+
+            System.err.println("Columnar removal case: FAILED");
+            return false;
+
+        } catch (NoSuchElementException exception) {
+            System.err.println("Columnar removal case: PASSED");
+        }
+
+        columnar.setList(catalogue.getList());
+
+        if (!columnar.toString().equals(catalogue.toString())) {
+            System.err.println("Columnar set list case: FAILED");
+            return false;
+        }
+
+        columnar.removeAll();
+
+        if (!columnar.isEmpty() || columnar.indexOf("M1") != -1) {
+            System.err.println("Columnar remove all case: FAILED");
+            return false;
+        }
+
+        System.err.println(" -- testColumnarCatalogue: PASSED -- \n");
+        return true;
+    }
+
+    /**
+     * Testing ConcurrentCatalogue.
+     *
+     * @param validStringData A valid set of messier object entries
+     * @return Test result
+     */
+    public static boolean testConcurrentCatalogue(String[] validStringData) {
+
+        List<MessierObject> objects = new ArrayList<MessierObject>();
+
+        try {
+            for (String entry : validStringData) {
+                objects.add(new MessierObject(entry));
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("FAILED TO CREATE OBJECT");
+            return false;
+        }
+
+        ConcurrentCatalogue concurrent = new ConcurrentCatalogue();
+        MessierCatalogue pinned = concurrent.snapshot();
+
+        concurrent.addAll(objects.subList(0, 2));
+
+        // Old snapshots must stay as they were, and every snapshot is read-only
+        try {
+            if (!pinned.isEmpty() || concurrent.size() != 2
+                    || concurrent.snapshot().getByMessierNumber("M2") != objects.get(1)) {
+                System.err.println("Snapshot case: FAILED");
+                return false;
+            }
+
+            concurrent.snapshot().add(objects.get(2));
+
+            System.err.println("Frozen case: FAILED");
+            return false;
+
+        } catch (UnsupportedOperationException exception) {
+            System.err.println("Frozen case: PASSED");
+        }
+
+        // Readers on other threads must only ever see whole updates
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                concurrent.addAll(objects.subList(2, 4));
+            }
+        });
+
+        writer.start();
+
+        boolean consistent = true;
+
+        while (writer.isAlive()) {
+
+            MessierCatalogue snapshot = concurrent.snapshot();
+
+            consistent = consistent && snapshot.size() % 2 == 0
+                    && snapshot.getByType("Spiral galaxy").size() == (snapshot.size() - 2) / 2
+                    && snapshot.getClosest(objects.get(0)) != null;
+        }
+
+        try {
+            writer.join();
+
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!consistent || concurrent.size() != 102) {
+            System.err.println("Concurrent update case: FAILED");
+            return false;
+        }
+
+        System.err.println(" -- testConcurrentCatalogue: PASSED -- \n");
+        return true;
+    }
+
+    /**
+     * Testing PersistentCatalogue.
+     *
+     * @param validStringData A valid set of messier object entries
+     * @return Test result
+     */
+    public static boolean testPersistentCatalogue(String[] validStringData) {
+
+        MessierCatalogue catalogue = new MessierCatalogue();
+
+        try {
+            for (String entry : validStringData) {
+                catalogue.add(new MessierObject(entry));
+            }
+
+        } catch (InvalidEntryException exception) {
+            exception.printStackTrace();
+            System.err.println("FAILED TO CREATE OBJECT");
+            return false;
+        }
+
+        PersistentCatalogue full = PersistentCatalogue.of(catalogue);
+        PersistentCatalogue removed = full.without("M2").without(catalogue.get(0));
+        PersistentCatalogue readded = removed.with(catalogue.get(1));
+
+        // Every version must keep its own contents, in order
+        if (full.size() != catalogue.size() || !full.toCatalogue().toString().equals(catalogue.toString())
+                || removed.contains("M1") || removed.size() != catalogue.size() - 2
+                || readded.getByMessierNumber("M2") != catalogue.get(1)
+                || !readded.toCatalogue().getList().equals(Arrays.asList(catalogue.get(2), catalogue.get(3),
+                        catalogue.get(1)))
+                || readded.getVersion() != full.getVersion() + 3) {
+            System.err.println("Version case: FAILED");
+            return false;
+        }
+
+        try {
+            removed.without("M1");
+
+            System.err.println("Missing object case: FAILED");
+            return false;
+
+        } catch (NoSuchElementException exception) {
+            System.err.println("Missing object case: PASSED");
+        }
+
+        System.err.println(" -- testPersistentCatalogue: PASSED -- \n");
+        return true;
+    }
+
     /**
      * Testing IOHandler.
      * 
@@ -139,6 +858,24 @@ public class TestHarness {
 
             System.err.println("Valid case: PASSED");
 
+            // Streaming must read the same objects in the same order
+            MessierCatalogue streamed = new MessierCatalogue();
+
+            try (Stream<MessierObject> objects = ioHandler.streamObjects()) {
+                objects.forEach(streamed::add);
+            }
+
+            if (!streamed.toString().equals(catalogue.toString())) {
+                System.err.println("Streaming case: FAILED");
+                return false;
+            }
+
+            // And so must loading in parallel
+            if (!ioHandler.loader().parallel().load().toString().equals(catalogue.toString())) {
+                System.err.println("Parallel load case: FAILED");
+                return false;
+            }
+
         } catch (InvalidEntryException | IOException exception) {
             exception.printStackTrace();
 
@@ -165,10 +902,245 @@ public class TestHarness {
             System.err.println("Invalid case: PASSED");
         }
 
+        // Lenient loads must skip bad entries and report their line numbers
+        try {
+            List<String> entries = new IOHandler(validPath).getEntries();
+            entries.add(1, "M0, not an entry");
+
+            Path path = Files.createTempFile("messier", ".txt");
+            Files.write(path, entries, StandardCharsets.UTF_8);
+
+            try {
+                IOHandler ioHandler = new IOHandler(path.toString());
+                LoadReport report = ioHandler.loader().lenient().loadWithReport();
+
+                if (report.getCatalogue().size() != entries.size() - 1 || report.getErrors().size() != 1
+                        || report.getErrors().get(0).getLineNumber() != 2) {
+                    System.err.println("Lenient load case: FAILED");
+                    return false;
+                }
+
+                // Skipped entries must not be hidden behind a snapshot
+                Path snapshot = Paths.get(path + ".snapshot");
+                report = ioHandler.loadWithSnapshot(snapshot, 1);
+
+                if (report.getErrors().size() != 1 || Files.deleteIfExists(snapshot)) {
+                    System.err.println("Lenient snapshot case: FAILED");
+                    return false;
+                }
+
+                ioHandler.loader().load();
+
+                System.err.println("Strict load case: FAILED");
+                return false;
+
+            } catch (InvalidEntryException exception) {
+
+                if (exception.getLineNumber() != 2) {
+                    System.err.println("Strict load case: FAILED");
+                    return false;
+                }
+
+            } finally {
+                Files.delete(path);
+            }
+
+        } catch (InvalidEntryException | IOException exception) {
+            exception.printStackTrace();
+            System.err.println("Lenient load case: FAILED");
+            return false;
+        }
+
+        // Chunked loads must join in file order, and number lines across chunks
+        try {
+            List<String> lines = new IOHandler(validPath).getEntries();
+
+            // In the last chunk whichever split is used
+            int badLine = lines.size() * 7 / 8 + 1;
+            lines.add(badLine - 1, "M0, not an entry");
+
+            Path path = Files.createTempFile("messier", ".txt");
+            Files.write(path, lines, StandardCharsets.UTF_8);
+
+            try {
+                IOHandler ioHandler = new IOHandler(path.toString());
+                String expected = ioHandler.loader().lenient().load().toString();
+
+                // The file is well over four chunks of this size, so each count
+                // really is used.
+                long chunkSize = Files.size(path) / 8;
+
+                for (int chunkCount = 2; chunkCount <= 4; chunkCount++) {
+
+                    LoadReport report = loader(path, chunkSize).parallel(chunkCount).lenient().loadWithReport();
+
+                    if (report.getErrors().size() != 1 || report.getErrors().get(0).getLineNumber() != badLine
+                            || report.getLineCount() != lines.size()
+                            || !report.getCatalogue().toString().equals(expected)) {
+                        System.err.println("Chunked load case " + chunkCount + ": FAILED");
+                        return false;
+                    }
+
+                    try {
+                        loader(path, chunkSize).parallel(chunkCount).load();
+
+                        System.err.println("Chunked strict load case " + chunkCount + ": FAILED");
+                        return false;
+
+                    } catch (InvalidEntryException exception) {
+
+                        if (exception.getLineNumber() != badLine) {
+                            System.err.println("Chunked strict load case " + chunkCount + ": FAILED");
+                            return false;
+                        }
+                    }
+                }
+
+                System.err.println("Chunked load case: PASSED");
+
+            } finally {
+                Files.delete(path);
+            }
+
+        } catch (InvalidEntryException | IOException | ReflectiveOperationException exception) {
+            exception.printStackTrace();
+            System.err.println("Chunked load case: FAILED");
+            return false;
+        }
+
+        // Snapshots must read back the same catalogue, and reject damage
+        try {
+            IOHandler ioHandler = new IOHandler(validPath);
+            MessierCatalogue catalogue = ioHandler.loader().load();
+            Path snapshot = Files.createTempFile("messier", ".snapshot");
+
+            try {
+                CatalogueSnapshot.write(catalogue, snapshot, Paths.get(validPath));
+
+                if (!CatalogueSnapshot.isFresh(snapshot, Paths.get(validPath))
+                        || !CatalogueSnapshot.read(snapshot).toString().equals(catalogue.toString())) {
+                    System.err.println("Snapshot case: FAILED");
+                    return false;
+                }
+
+                byte[] bytes = Files.readAllBytes(snapshot);
+                bytes[bytes.length - 1] ^= 1;
+                Files.write(snapshot, bytes);
+
+                try {
+                    CatalogueSnapshot.read(snapshot);
+
+                    System.err.println("Damaged snapshot case: FAILED");
+                    return false;
+
+                } catch (IOException exception) {
+                    System.err.println("Damaged snapshot case: PASSED");
+                }
+
+                // A damaged row count must fall back to the text, not allocate
+                CatalogueSnapshot.write(catalogue, snapshot, Paths.get(validPath));
+                bytes = Files.readAllBytes(snapshot);
+                bytes[32] ^= 0x40;
+                Files.write(snapshot, bytes);
+
+                if (!ioHandler.loadWithSnapshot(snapshot).toString().equals(catalogue.toString())) {
+                    System.err.println("Damaged count case: FAILED");
+                    return false;
+                }
+
+            } finally {
+                Files.delete(snapshot);
+            }
+
+        } catch (InvalidEntryException | IOException exception) {
+            exception.printStackTrace();
+            System.err.println("Snapshot case: FAILED");
+            return false;
+        }
+
+        // Logged changes must replay on top of the file, and survive compaction
+        try {
+            List<String> entries = new IOHandler(validPath).getEntries();
+            Path path = Files.createTempFile("messier", ".txt");
+            Files.write(path, entries, StandardCharsets.UTF_8);
+
+            IOHandler ioHandler = new IOHandler(path.toString());
+
+            try {
+                MessierCatalogue catalogue = ioHandler.loader().load();
+                MessierObject first = catalogue.getList().get(0);
+
+                ioHandler.logAdd(first);
+                ioHandler.logRemove(first.getMessierNumber());
+
+                List<MessierObject> objects = new ArrayList<MessierObject>(catalogue.getList());
+                objects.add(objects.remove(0));
+                String expected = new MessierCatalogue(objects.toArray(new MessierObject[0])).toString();
+
+                if (!ioHandler.loadWithChanges().toString().equals(expected)) {
+                    System.err.println("Change log case: FAILED");
+                    return false;
+                }
+
+                ioHandler.compact();
+
+                // The file holds positions to four decimal places of a second, so
+                // compare them with a tolerance.
+                List<MessierObject> compacted = ioHandler.loader().load().getList();
+
+                if (ioHandler.getChangeLog().hasChanges() || compacted.size() != objects.size()) {
+                    System.err.println("Compaction case: FAILED");
+                    return false;
+                }
+
+                for (int i = 0; i < objects.size(); i++) {
+
+                    if (!compacted.get(i).getMessierNumber().equals(objects.get(i).getMessierNumber())
+                            || Math.abs(compacted.get(i).getDeclinationRadians()
+                                    - objects.get(i).getDeclinationRadians()) > 1e-9) {
+                        System.err.println("Compaction case " + i + ": FAILED");
+                        return false;
+                    }
+                }
+
+                System.err.println("Change log case: PASSED");
+
+            } finally {
+                Files.delete(path);
+                Files.deleteIfExists(Paths.get(path + ".changes"));
+            }
+
+        } catch (InvalidEntryException | IOException exception) {
+            exception.printStackTrace();
+            System.err.println("Change log case: FAILED");
+            return false;
+        }
+
         System.err.println(" -- testIOHandler: PASSED -- \n");
         return true;
     }
 
+    /**
+     * Create a loader that splits files into chunks of at least the passed size.
+     * Its constructor is package-private, so from this package it's reached
+     * through reflection.
+     * 
+     * @param path             The path to the file
+     * @param minimumChunkSize The smallest chunk in bytes
+     * @return The loader
+     * @throws ReflectiveOperationException Thrown if the constructor can't be
+     *                                      called
+     */
+    private static CatalogueLoader loader(Path path, long minimumChunkSize) throws ReflectiveOperationException {
+
+        Constructor<CatalogueLoader> constructor = CatalogueLoader.class.getDeclaredConstructor(Path.class,
+                long.class);
+
+        constructor.setAccessible(true);
+
+        return constructor.newInstance(path, minimumChunkSize);
+    }
+
     /**
      * Run tests and return if all successful or if some failed.
      * 
@@ -229,6 +1201,9 @@ public class TestHarness {
 
         passed = passed && testMessierObject(validStringData, validMappedData, invalidStringData, invalidMappedData);
         passed = passed && testMessierCatalogue(validStringData, invalidStringData);
+        passed = passed && testColumnarCatalogue(validStringData);
+        passed = passed && testConcurrentCatalogue(validStringData);
+        passed = passed && testPersistentCatalogue(validStringData);
         passed = passed && testIOHandler(validPath, invalidPath);
 
         return passed;